@@ -8,36 +8,75 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.elasticsearch.client.NodeSelector;
 import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
+import org.elasticsearch.client.sniff.ElasticsearchNodesSniffer;
+import org.elasticsearch.client.sniff.SniffOnFailureListener;
+import org.elasticsearch.client.sniff.Sniffer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Two low-level clients over the same node list, each with its own connection pool:
+ * {@code restClient} for searches and admin requests, and {@code ingestRestClient} for _bulk traffic,
+ * sized to the bulk concurrency and gzip-compressing request bodies. Requests are spread round-robin over
+ * elasticsearch.hosts, failing nodes are retried after the client's backoff, and with
+ * elasticsearch.sniff.enabled the node list is refreshed from the cluster.
+ */
 @Configuration
-public class ElasticsearchConfig {
+public class ElasticsearchConfig implements DisposableBean {
 
-    @Value("${elasticsearch.host}")
-    private String elasticUrl;
+    @Value("${elasticsearch.hosts:${elasticsearch.host}}")
+    private String elasticUrls;
+    @Value("${elasticsearch.username}")
+    private String username;
+    @Value("${elasticsearch.password}")
+    private String password;
 
-    @Bean
-    public RestClient restClient(
-            @Value("${elasticsearch.username}") String username,
-            @Value("${elasticsearch.password}") String password
-    ) {
-        CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-        credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(username, password));
+    @Value("${elasticsearch.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+    @Value("${elasticsearch.socket-timeout-ms:60000}")
+    private int socketTimeoutMs;
+    @Value("${elasticsearch.query.max-connections-per-node:10}")
+    private int queryConnectionsPerNode;
+    @Value("${elasticsearch.ingest.bulk-concurrency:8}")
+    private int bulkConcurrency;
+    @Value("${elasticsearch.ingest.compression:true}")
+    private boolean ingestCompression;
+
+    @Value("${elasticsearch.sniff.enabled:false}")
+    private boolean sniffEnabled;
+    @Value("${elasticsearch.sniff.interval-ms:300000}")
+    private int sniffIntervalMs;
+    @Value("${elasticsearch.sniff.after-failure-delay-ms:60000}")
+    private int sniffAfterFailureDelayMs;
 
-        return RestClient.builder(HttpHost.create(elasticUrl))
-                .setHttpClientConfigCallback(httpClientBuilder ->
-                        httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider)
-                )
-                .build();
+    private final List<Sniffer> sniffers = new ArrayList<>();
+
+    @Bean
+    @Primary
+    public RestClient restClient() {
+        return buildClient(queryConnectionsPerNode, false);
     }
 
+    @Bean
+    public RestClient ingestRestClient() {
+        // Every concurrent bulk holds a connection to one node until it completes
+        return buildClient(bulkConcurrency, ingestCompression);
+    }
 
     @Bean
-    public ElasticsearchClient elasticsearchClient(RestClient restClient) {
+    public ElasticsearchClient elasticsearchClient(@Qualifier("restClient") RestClient restClient) {
         RestClientTransport transport = new RestClientTransport(restClient, new JacksonJsonpMapper());
         return new ElasticsearchClient(transport);
     }
@@ -46,4 +85,52 @@ public class ElasticsearchConfig {
     public ElasticsearchTemplate elasticsearchTemplate(ElasticsearchClient  client) {
         return new ElasticsearchTemplate(client);
     }
+
+    @Override
+    public void destroy() {
+        // Sniffers must stop before their clients are closed
+        sniffers.forEach(Sniffer::close);
+    }
+
+    private RestClient buildClient(int connectionsPerNode, boolean compression) {
+        HttpHost[] hosts = Arrays.stream(elasticUrls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(HttpHost::create)
+                .toArray(HttpHost[]::new);
+
+        CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+        credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(username, password));
+
+        SniffOnFailureListener failureListener = sniffEnabled ? new SniffOnFailureListener() : null;
+        RestClientBuilder builder = RestClient.builder(hosts)
+                .setNodeSelector(NodeSelector.SKIP_DEDICATED_MASTERS)
+                .setCompressionEnabled(compression)
+                .setRequestConfigCallback(requestConfig -> requestConfig
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setSocketTimeout(socketTimeoutMs))
+                .setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder
+                        .setDefaultCredentialsProvider(credentialsProvider)
+                        .setMaxConnPerRoute(connectionsPerNode)
+                        // Sized for the configured nodes; sniffed extra nodes share the same total
+                        .setMaxConnTotal(connectionsPerNode * hosts.length));
+        if (failureListener != null) {
+            builder.setFailureListener(failureListener);
+        }
+        RestClient client = builder.build();
+
+        if (sniffEnabled) {
+            ElasticsearchNodesSniffer.Scheme scheme = "https".equals(hosts[0].getSchemeName())
+                    ? ElasticsearchNodesSniffer.Scheme.HTTPS : ElasticsearchNodesSniffer.Scheme.HTTP;
+            Sniffer sniffer = Sniffer.builder(client)
+                    .setNodesSniffer(new ElasticsearchNodesSniffer(client,
+                            ElasticsearchNodesSniffer.DEFAULT_SNIFF_REQUEST_TIMEOUT, scheme))
+                    .setSniffIntervalMillis(sniffIntervalMs)
+                    .setSniffAfterFailureDelayMillis(sniffAfterFailureDelayMs)
+                    .build();
+            failureListener.setSniffer(sniffer);
+            sniffers.add(sniffer);
+        }
+        return client;
+    }
 }
@@ -4,6 +4,7 @@ import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch.indices.CreateIndexRequest;
 import co.elastic.clients.elasticsearch.indices.ExistsRequest;
 import co.elastic.clients.transport.endpoints.BooleanResponse;
+import com.poinciana.loganalyzer.service.LogIndexTemplateService;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -16,8 +17,13 @@ public class ElasticsearchIndexInitializer {
     @Autowired
     private ElasticsearchClient elasticsearchClient;
 
+    @Autowired
+    private LogIndexTemplateService logIndexTemplateService;
+
     @PostConstruct
     public void createIndexIfNotExists() {
+        // Templates first, so the default index is created with the managed mapping
+        logIndexTemplateService.applyTemplates();
         try {
             String indexName = "log_entries";  // Default index
 
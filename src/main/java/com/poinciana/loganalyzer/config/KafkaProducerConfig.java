@@ -0,0 +1,61 @@
+package com.poinciana.loganalyzer.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@Slf4j
+public class KafkaProducerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String kafkaBroker;
+
+    // SSL configuration properties
+    @Value("${spring.kafka.properties.security.protocol}")
+    private String securityProtocol;
+
+    @Value("${spring.kafka.properties.sasl.username}")
+    private String saslUsername;
+
+    @Value("${spring.kafka.properties.sasl.password}")
+    private String saslPassword;
+
+    @Bean
+    public ProducerFactory<String, String> producerFactory() {
+        log.info("Inside producerFactory()");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBroker);
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.ACKS_CONFIG, "all");
+        properties.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+
+        // Same SSL/SASL setup as the consumer
+        properties.put("security.protocol", securityProtocol);
+        properties.put("ssl.keystore.location", System.getenv("SPRING_KAFKA_PROPERTIES_SSL_KEYSTORE_LOCATION"));
+        properties.put("ssl.keystore.password", System.getenv("SPRING_KAFKA_PROPERTIES_SSL_KEYSTORE_PASSWORD"));
+        properties.put("ssl.key.password", System.getenv("SPRING_KAFKA_PROPERTIES_SSL_KEY_PASSWORD"));
+        properties.put("sasl.mechanism", System.getenv("KAFKA_SASL_ENABLED_MECHANISMS"));
+        properties.put("sasl.jaas.config",
+                "org.apache.kafka.common.security.scram.ScramLoginModule required " +
+                        "username=\""+ saslUsername +"\" password=\"" + saslPassword + "\";");
+
+        return new DefaultKafkaProducerFactory<>(properties);
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+}
@@ -0,0 +1,23 @@
+package com.poinciana.loganalyzer.config;
+
+import com.poinciana.loganalyzer.model.SamplingRuleDTO;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ingest-time sampling rules. Rules are evaluated in declaration order and the first match wins;
+ * entries that match no rule are always kept.
+ * When {@code rulesFile} is set, its JSON array replaces the rules declared here and is re-read on change.
+ */
+@Component
+@ConfigurationProperties(prefix = "log.sampling")
+@Data
+public class LogSamplingConfig {
+    private boolean enabled = false;
+    private String rulesFile;
+    private List<SamplingRuleDTO> rules = new ArrayList<>();
+}
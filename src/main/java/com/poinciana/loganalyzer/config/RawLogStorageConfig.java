@@ -0,0 +1,25 @@
+package com.poinciana.loganalyzer.config;
+
+import com.poinciana.loganalyzer.model.RawLogPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Raw-log storage policy: {@code policy} applies to every index unless {@code indices} overrides it
+ * for a base index name (log.storage.raw-log.indices.&lt;index&gt;=DROP).
+ */
+@Component
+@ConfigurationProperties(prefix = "log.storage.raw-log")
+@Data
+public class RawLogStorageConfig {
+    private RawLogPolicy policy = RawLogPolicy.ALWAYS;
+    private Map<String, RawLogPolicy> indices = new HashMap<>();
+
+    public RawLogPolicy policyFor(String baseIndex) {
+        return indices.getOrDefault(baseIndex, policy);
+    }
+}
@@ -0,0 +1,57 @@
+package com.poinciana.loganalyzer.controller;
+
+import com.poinciana.loganalyzer.model.IngestJobDTO;
+import com.poinciana.loganalyzer.service.IngestJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/logs/jobs")
+@RequiredArgsConstructor
+public class IngestJobController {
+
+    private final IngestJobService ingestJobService;
+
+    @PostMapping
+    public ResponseEntity<IngestJobDTO> submitUpload(@RequestParam("file") MultipartFile file,
+                                                     @RequestParam(required = false) Long patternId,
+                                                     @RequestParam String indexName,
+                                                     @RequestParam(required = false) Double maxEntriesPerSecond) {
+        return new ResponseEntity<>(ingestJobService.submitUpload(file, patternId, indexName, maxEntriesPerSecond),
+                HttpStatus.ACCEPTED);
+    }
+
+    @PostMapping("/local")
+    public ResponseEntity<IngestJobDTO> submitLocal(@RequestParam String path,
+                                                    @RequestParam(required = false) Long patternId,
+                                                    @RequestParam String indexName,
+                                                    @RequestParam(required = false) Double maxEntriesPerSecond) {
+        try {
+            return new ResponseEntity<>(ingestJobService.submitLocal(path, patternId, indexName, maxEntriesPerSecond),
+                    HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<IngestJobDTO>> getJobs() {
+        return ResponseEntity.ok(ingestJobService.getJobs());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<IngestJobDTO> getJob(@PathVariable String id) {
+        return ingestJobService.getJob(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<IngestJobDTO> cancel(@PathVariable String id) {
+        return ingestJobService.cancel(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+}
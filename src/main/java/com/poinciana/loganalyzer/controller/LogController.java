@@ -1,32 +1,131 @@
 package com.poinciana.loganalyzer.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poinciana.loganalyzer.model.IngestSummaryDTO;
 import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.service.HttpBatchIngestService;
 import com.poinciana.loganalyzer.service.LogService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/logs")
 @RequiredArgsConstructor
 public class LogController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final LogService logService;
+    private final HttpBatchIngestService httpBatchIngestService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${log.ingest.stream.progress-interval-ms:1000}")
+    private long progressIntervalMs;
+    @Value("${log.ingest.http.retry-after-seconds:1}")
+    private int retryAfterSeconds;
 
     @PostMapping("/ingest")
     public ResponseEntity<LogEntryDTO> ingestDocumentLog(@RequestBody String rawLog, @RequestParam(required = false) Long patternId) {
-        return new ResponseEntity<>(logService.ingestLog(rawLog, patternId), HttpStatus.OK);
+        try {
+            return new ResponseEntity<>(logService.ingestLog(rawLog, patternId), HttpStatus.OK);
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        }
+    }
+
+    /**
+     * Ingests many logs per request, one per line (plain text or JSON), optionally with Content-Encoding: gzip.
+     * Concurrent requests share bulk requests; answers 429 with Retry-After while the pipeline is saturated.
+     * A 429 that happens part way through the body carries the summary of the lines already accepted.
+     */
+    @PostMapping(value = "/ingest-batch", consumes = {"application/x-ndjson", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<IngestSummaryDTO> ingestBatch(HttpServletRequest request,
+                                                        @RequestParam(required = false) String indexName,
+                                                        @RequestParam(required = false) Long patternId) throws IOException {
+        if (httpBatchIngestService.isSaturated()) {
+            return tooManyRequests();
+        }
+        boolean gzip = "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING));
+        IngestSummaryDTO summary = httpBatchIngestService.ingest(request.getInputStream(), gzip, indexName, patternId);
+        if (!summary.isDone()) {
+            // saturated part way through: the summary says how much of the body was accepted
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(summary);
+        }
+        return ResponseEntity.ok(summary);
     }
 
     @PostMapping("/ingest-file")
-    public ResponseEntity<List<LogEntryDTO>> ingestLogFile(@RequestParam("file") MultipartFile file,
-                                                           @RequestParam(required = false) Long patternId, @RequestParam String  indexName) {
-        return new ResponseEntity<>(logService.ingestLogFile(file, patternId, indexName), HttpStatus.OK);
+    public ResponseEntity<IngestSummaryDTO> ingestLogFile(@RequestParam("file") MultipartFile file,
+                                                          @RequestParam(required = false) Long patternId, @RequestParam String  indexName) {
+        return new ResponseEntity<>(logService.ingestLogFile(file, patternId, indexName, null), HttpStatus.OK);
     }
 
-}
+    /**
+     * Ingests a large file from the server's local ingest directory (log.ingest.local.dir) for backfills.
+     */
+    @PostMapping("/ingest-local")
+    public ResponseEntity<IngestSummaryDTO> ingestLocalFile(@RequestParam String path,
+                                                            @RequestParam(required = false) Long patternId,
+                                                            @RequestParam String indexName) {
+        try {
+            return new ResponseEntity<>(logService.ingestLocalFile(path, patternId, indexName), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 
+    /**
+     * Same as /ingest-file, but answers with an NDJSON stream of progress snapshots, the last one with done=true.
+     */
+    @PostMapping("/ingest-file/stream")
+    public ResponseEntity<StreamingResponseBody> ingestLogFileWithProgress(@RequestParam("file") MultipartFile file,
+                                                                           @RequestParam(required = false) Long patternId,
+                                                                           @RequestParam String indexName) {
+        StreamingResponseBody body = out -> {
+            long[] lastWrite = {0};
+            IngestSummaryDTO summary = logService.ingestLogFile(file, patternId, indexName, progress -> {
+                synchronized (lastWrite) {
+                    long now = System.currentTimeMillis();
+                    if (now - lastWrite[0] < progressIntervalMs) return;
+                    lastWrite[0] = now;
+                    try {
+                        writeLine(out, progress);
+                    } catch (IOException ignored) {
+                        // client went away; the ingest itself carries on
+                    }
+                }
+            });
+            synchronized (lastWrite) {
+                writeLine(out, summary);
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private <T> ResponseEntity<T> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+    }
+
+    private void writeLine(OutputStream out, IngestSummaryDTO progress) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(progress));
+        out.write('\n');
+        out.flush();
+    }
+}
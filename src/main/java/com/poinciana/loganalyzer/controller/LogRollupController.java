@@ -0,0 +1,34 @@
+package com.poinciana.loganalyzer.controller;
+
+import com.poinciana.loganalyzer.model.LogHistogramDTO;
+import com.poinciana.loganalyzer.model.LogSearchRequestDTO;
+import com.poinciana.loganalyzer.service.LogRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/logs")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "log.aggregation.enabled", havingValue = "true")
+public class LogRollupController {
+
+    private final LogRollupService logRollupService;
+
+    /**
+     * Log counts per log.aggregation.interval bucket read from the rollups, optionally per value of one of
+     * log.aggregation.fields. Cheap over long ranges; counts lag ingestion by up to one rollup flush.
+     */
+    @PostMapping("/rollups")
+    public ResponseEntity<LogHistogramDTO> rollups(@RequestBody LogSearchRequestDTO request,
+                                                   @RequestParam(required = false) String groupBy) {
+        try {
+            return ResponseEntity.ok(logRollupService.query(request, groupBy));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
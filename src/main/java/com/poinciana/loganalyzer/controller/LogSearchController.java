@@ -0,0 +1,97 @@
+package com.poinciana.loganalyzer.controller;
+
+import com.poinciana.loganalyzer.model.LogHistogramDTO;
+import com.poinciana.loganalyzer.model.LogSearchRequestDTO;
+import com.poinciana.loganalyzer.model.LogSearchResponseDTO;
+import com.poinciana.loganalyzer.service.LogExportService;
+import com.poinciana.loganalyzer.service.LogHistogramService;
+import com.poinciana.loganalyzer.service.LogSearchService;
+import com.poinciana.loganalyzer.service.LogTailService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/logs")
+@RequiredArgsConstructor
+public class LogSearchController {
+
+    private final LogSearchService logSearchService;
+    private final LogExportService logExportService;
+    private final LogHistogramService logHistogramService;
+    private final LogTailService logTailService;
+
+    /**
+     * One page of matching logs, newest first. Repeat the request with the returned nextCursor for the next page.
+     */
+    @PostMapping("/search")
+    public ResponseEntity<LogSearchResponseDTO> search(@RequestBody LogSearchRequestDTO request) {
+        try {
+            return ResponseEntity.ok(logSearchService.search(request));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Streams every match as NDJSON (format=ndjson) or as gzip-compressed CSV with the requested fields as
+     * columns (format=csv), in no particular order.
+     */
+    @PostMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestBody LogSearchRequestDTO request,
+                                                        @RequestParam(defaultValue = "ndjson") String format) {
+        LogExportService.Format exportFormat = switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson" -> LogExportService.Format.NDJSON;
+            case "csv" -> LogExportService.Format.CSV_GZIP;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + format);
+        };
+        StreamingResponseBody body = out -> logExportService.export(request, exportFormat, out);
+        if (exportFormat == LogExportService.Format.NDJSON) {
+            return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"logs.csv.gz\"")
+                .body(body);
+    }
+
+    /**
+     * Log counts per interval over the request's time range (default: last 24 hours), optionally per
+     * level, serviceName or hostName.
+     */
+    @PostMapping("/histogram")
+    public ResponseEntity<LogHistogramDTO> histogram(@RequestBody LogSearchRequestDTO request,
+                                                     @RequestParam(defaultValue = "1m") String interval,
+                                                     @RequestParam(required = false) String groupBy) {
+        try {
+            return ResponseEntity.ok(logHistogramService.histogram(request, interval, groupBy));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Server-sent events of newly ingested logs ("log" events), straight from the ingest pipeline. A "dropped"
+     * event with a count means the client read too slowly and missed that many entries.
+     */
+    @GetMapping(value = "/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter tail(@RequestParam(required = false) List<String> index,
+                           @RequestParam(required = false) List<String> service,
+                           @RequestParam(required = false) List<String> level,
+                           @RequestParam(required = false) String contains) {
+        try {
+            return logTailService.subscribe(index, service, level, contains);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.poinciana.loganalyzer.controller;
+
+import com.poinciana.loganalyzer.model.LogSinkStatusDTO;
+import com.poinciana.loganalyzer.service.LogSinkDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/internal/sinks")
+@RequiredArgsConstructor
+public class LogSinkController {
+
+    private final LogSinkDispatcher logSinkDispatcher;
+
+    @GetMapping
+    public ResponseEntity<List<LogSinkStatusDTO>> getStatus() {
+        return ResponseEntity.ok(logSinkDispatcher.getStatus());
+    }
+}
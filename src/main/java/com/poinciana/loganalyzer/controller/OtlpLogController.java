@@ -0,0 +1,80 @@
+package com.poinciana.loganalyzer.controller;
+
+import com.poinciana.loganalyzer.model.IngestSummaryDTO;
+import com.poinciana.loganalyzer.service.OtlpLogReceiver;
+import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * OTLP/HTTP logs endpoint: point an exporter's OTEL_EXPORTER_OTLP_ENDPOINT at {@code <host>/api/logs/otlp}
+ * and it posts to {@code /v1/logs}. Failed writes answer 503 and saturation 429, both with Retry-After,
+ * which exporters treat as retryable.
+ */
+@RestController
+@RequestMapping("/api/logs/otlp")
+@RequiredArgsConstructor
+public class OtlpLogController {
+
+    private static final String PROTOBUF = "application/x-protobuf";
+
+    private final OtlpLogReceiver otlpLogReceiver;
+
+    @Value("${log.ingest.http.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @PostMapping(value = "/v1/logs", consumes = PROTOBUF, produces = PROTOBUF)
+    public ResponseEntity<byte[]> exportProtobuf(HttpServletRequest request,
+                                                 @RequestParam(required = false) String indexName) throws IOException {
+        if (otlpLogReceiver.isSaturated()) return retryLater(HttpStatus.TOO_MANY_REQUESTS);
+        try {
+            IngestSummaryDTO summary = otlpLogReceiver.ingestProtobuf(body(request), indexName);
+            if (summary.getFailedBatches() > 0) return retryLater(HttpStatus.SERVICE_UNAVAILABLE);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(PROTOBUF))
+                    .body(ExportLogsServiceResponse.getDefaultInstance().toByteArray());
+        } catch (RejectedExecutionException e) {
+            return retryLater(HttpStatus.TOO_MANY_REQUESTS);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/v1/logs", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> exportJson(HttpServletRequest request,
+                                             @RequestParam(required = false) String indexName) throws IOException {
+        if (otlpLogReceiver.isSaturated()) return retryLater(HttpStatus.TOO_MANY_REQUESTS);
+        try {
+            IngestSummaryDTO summary = otlpLogReceiver.ingestJson(body(request), indexName);
+            if (summary.getFailedBatches() > 0) return retryLater(HttpStatus.SERVICE_UNAVAILABLE);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body("{}");
+        } catch (RejectedExecutionException e) {
+            return retryLater(HttpStatus.TOO_MANY_REQUESTS);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private InputStream body(HttpServletRequest request) throws IOException {
+        boolean gzip = "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING));
+        return gzip ? new GZIPInputStream(request.getInputStream(), 64 * 1024) : request.getInputStream();
+    }
+
+    private <T> ResponseEntity<T> retryLater(HttpStatus status) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+    }
+}
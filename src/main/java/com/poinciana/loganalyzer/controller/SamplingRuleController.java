@@ -0,0 +1,28 @@
+package com.poinciana.loganalyzer.controller;
+
+import com.poinciana.loganalyzer.model.SamplingRuleDTO;
+import com.poinciana.loganalyzer.service.LogSamplingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/internal/sampling-rules")
+@RequiredArgsConstructor
+public class SamplingRuleController {
+
+    private final LogSamplingService logSamplingService;
+
+    @GetMapping
+    public ResponseEntity<List<SamplingRuleDTO>> getRules() {
+        return ResponseEntity.ok(logSamplingService.getRules());
+    }
+
+    @PutMapping
+    public ResponseEntity<List<SamplingRuleDTO>> replaceRules(@RequestBody List<SamplingRuleDTO> rules) {
+        logSamplingService.replaceRules(rules);
+        return ResponseEntity.ok(logSamplingService.getRules());
+    }
+}
@@ -13,14 +13,20 @@ import java.time.LocalDateTime;
 @Builder
 public class LogEntry {
 
+    public static final int MESSAGE_LENGTH = 4000;
+
+    // Pooled sequence: ids are handed out in blocks, so inserts can be JDBC-batched (IDENTITY cannot)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "logs_seq")
+    @SequenceGenerator(name = "logs_seq", sequenceName = "logs_seq", allocationSize = 500)
     private Long id;
 
     private LocalDateTime timestamp;
     private String level; // ERROR, WARN, INFO, DEBUG
     private String serviceName;
+    @Column(length = MESSAGE_LENGTH)
     private String message;
+    @Lob
     private String exception; // Stores stack traces if any
 
     @Lob
@@ -21,10 +21,10 @@ public class LogEntryDocument {
     private String id;
     private LocalDateTime timestamp;
 
-    @Field(type = FieldType.Text)
+    @Field(type = FieldType.Keyword)
     private String level;
 
-    @Field(type = FieldType.Text)
+    @Field(type = FieldType.Keyword)
     private String serviceName;
 
     @Field(type = FieldType.Text)
@@ -36,10 +36,13 @@ public class LogEntryDocument {
     @Field(type = FieldType.Text)
     private String rawLog;
 
-    @Field(type = FieldType.Text)
+    @Field(type = FieldType.Text, index = false)
+    private String rawLogStored;
+
+    @Field(type = FieldType.Keyword)
     private String hostName;
 
-    @Field(type = FieldType.Text)
+    @Field(type = FieldType.Keyword)
     private String hostIp;
 
     /**
@@ -48,4 +51,11 @@ public class LogEntryDocument {
      */
     @Field(type = FieldType.Object)
     private Map<String, Object> metadata;
+
+    /**
+     * Only present on summaries of collapsed repeated messages
+     */
+    private Long repeatCount;
+    private LocalDateTime firstSeen;
+    private LocalDateTime lastSeen;
 }
\ No newline at end of file
@@ -1,27 +1,28 @@
 package com.poinciana.loganalyzer.listener_service;
 
-import com.poinciana.loganalyzer.entity.LogEntryDocument;
 import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.service.LogCollapseService;
+import com.poinciana.loganalyzer.service.LogDocumentIds;
 import com.poinciana.loganalyzer.service.LogParserService;
+import com.poinciana.loganalyzer.service.LogSamplingService;
+import com.poinciana.loganalyzer.service.LogSinkDispatcher;
+import com.poinciana.loganalyzer.service.LogTailService;
 import com.poinciana.loganalyzer.service.interfaces.TopicIndexMapService;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.modelmapper.ModelMapper;
-import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
-import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
-import org.springframework.data.elasticsearch.core.query.IndexQuery;
-import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
@@ -29,22 +30,27 @@ public class KafkaLogConsumer {
     private final LogParserService logParserService;
     private final BlockingQueue<LogEntryDTO> logQueue;
     private final ScheduledExecutorService bulkProcessor;
-    private final ModelMapper mapper;
-    private final ElasticsearchTemplate elasticsearchTemplate;
+    private final LogSinkDispatcher logSinkDispatcher;
     private final TopicIndexMapService topicIndexMapService;
+    private final LogSamplingService logSamplingService;
+    private final LogCollapseService logCollapseService;
+    private final LogTailService logTailService;
 
-    // Buffer to store the current log message being accumulated
-    private final AtomicReference<StringBuilder> logBuffer = new AtomicReference<>(new StringBuilder());
+    @Value("${log.ingest.deterministic-ids:false}")
+    private boolean deterministicIds;
 
 
-    public KafkaLogConsumer(LogParserService logParserService, ModelMapper mapper, ElasticsearchTemplate elasticsearchTemplate
-    , TopicIndexMapService topicIndexMapService) {
+    public KafkaLogConsumer(LogParserService logParserService, LogSinkDispatcher logSinkDispatcher
+    , TopicIndexMapService topicIndexMapService, LogSamplingService logSamplingService,
+                            LogCollapseService logCollapseService, LogTailService logTailService) {
         this.logParserService = logParserService;
-        this.mapper = mapper;
-        this.elasticsearchTemplate = elasticsearchTemplate;
+        this.logSinkDispatcher = logSinkDispatcher;
         this.logQueue = new LinkedBlockingQueue<>(100_000); // High-capacity queue
         this.bulkProcessor = Executors.newScheduledThreadPool(1);
         this.topicIndexMapService = topicIndexMapService;
+        this.logSamplingService = logSamplingService;
+        this.logCollapseService = logCollapseService;
+        this.logTailService = logTailService;
     }
 
     @PostConstruct
@@ -55,6 +61,8 @@ public class KafkaLogConsumer {
 
     @PreDestroy
     public void shutdown() {
+        // Emit pending collapse summaries so repeat counts are not lost on shutdown
+        logCollapseService.closeAllWindows();
         bulkProcessor.shutdown();
         try {
             if (!bulkProcessor.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -63,22 +71,22 @@ public class KafkaLogConsumer {
         } catch (InterruptedException e) {
             bulkProcessor.shutdownNow();
         }
+        flushLogsToElasticsearch();
     }
 
     public void consumeLogs(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
-        String topic = "";
         log.info("[KafkaLogConsumer] Received {} records. Ack: {}", records.size(), acknowledgment != null);
+        // Entries being accumulated, per partition: listener containers run concurrently and a batch
+        // interleaves the records of every partition its container owns
+        Map<TopicPartition, PendingEntry> pending = new LinkedHashMap<>();
         for (ConsumerRecord<String, String> record : records) {
-            topic = record.topic();
-            String message = record.value();
-            String index = topicIndexMapService.resolveIndex(topic);
-            processLogMessage(message, index); // index name and topic name will be same
+            String index = topicIndexMapService.resolveIndex(record.topic());
+            processLogMessage(record, index, pending);
         }
 
-        // After processing all the records in the batch, if there's an accumulated log entry, process it
-        if (!logBuffer.get().isEmpty()) {
-            parseAndQueueLog(logBuffer.get().toString(),topic); // index name and topic name will be same
-            logBuffer.set(new StringBuilder());  // Assigns a new empty StringBuilder
+        // After processing all the records in the batch, process the accumulated log entries
+        for (PendingEntry entry : pending.values()) {
+            parseAndQueueLog(entry.text.toString(), entry.indexName, entry.documentId);
         }
 
         if (logQueue.size() > 90_000) {
@@ -96,22 +104,30 @@ public class KafkaLogConsumer {
     }
 
     // Process each log message line
-    private void processLogMessage(String message, String indexName) {
+    private void processLogMessage(ConsumerRecord<String, String> record, String indexName,
+                                   Map<TopicPartition, PendingEntry> pending) {
+        String message = record.value();
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        PendingEntry entry = pending.get(partition);
         // Check if the message starts with a timestamp (this helps to identify a new log entry)
         if (isNewLogEntry(message)) {
-            // If we are already buffering a previous log, process it first (flush it)
-            if (!logBuffer.get().isEmpty()) {
-                parseAndQueueLog(logBuffer.get().toString(), indexName);
-                logBuffer.get().setLength(0);  // it will update from beginning removing all old values.
-            }
-            // Reset the buffer for the new log entry
-            logBuffer.set(new StringBuilder(message).append("\n"));
+            // If we are already buffering a previous log of this partition, process it first (flush it)
+            if (entry != null) parseAndQueueLog(entry.text.toString(), entry.indexName, entry.documentId);
+            pending.put(partition, new PendingEntry(indexName, documentId(record), message));
+        } else if (entry == null) {
+            // continuation without a preceding header line: anchor on this record instead
+            pending.put(partition, new PendingEntry(indexName, documentId(record), message));
         } else {
             // If it's a continuation, append to the current log
-            logBuffer.get().append(message).append("\n");
+            entry.text.append(message).append("\n");
         }
     }
 
+    // Document id derived from the record holding the first line of an entry
+    private String documentId(ConsumerRecord<String, String> record) {
+        return deterministicIds ? LogDocumentIds.fromKafkaRecord(record.topic(), record.partition(), record.offset()) : null;
+    }
+
     // Check if the message starts with a timestamp (indicating it's a new log entry)
     private boolean isNewLogEntry(String message) {
 //        return message.matches("^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}.*");
@@ -119,15 +135,28 @@ public class KafkaLogConsumer {
 
     }
 
-    private void parseAndQueueLog(String rawLog, String indexName) {
+    private void parseAndQueueLog(String rawLog, String indexName, String documentId) {
         try {
             LogEntryDTO logEntryDTO = logParserService.grokLogParser(rawLog, null);
             logEntryDTO.setIndexName(indexName);
+            logEntryDTO.setId(documentId);
+            logTailService.publish(logEntryDTO);
+            if (!logSamplingService.sample(logEntryDTO)) return;
+            if (!logCollapseService.admit(logEntryDTO, this::queueLog)) return;
+            queueLog(logEntryDTO);
+        } catch (Exception e) {
+            log.error("Failed to process log: {}", rawLog, e);
+        }
+    }
+
+    private void queueLog(LogEntryDTO logEntryDTO) {
+        try {
             if (!logQueue.offer(logEntryDTO, 50, TimeUnit.MILLISECONDS)) {
                 log.warn("Queue full, dropping log entry");
             }
-        } catch (Exception e) {
-            log.error("Failed to process log: {}", rawLog, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while queueing log entry");
         }
     }
 
@@ -135,33 +164,18 @@ public class KafkaLogConsumer {
         if (logQueue.isEmpty()) return;
 
         List<LogEntryDTO> batch = new ArrayList<>();
-        Map<String, List<IndexQuery>> indexNameToQueries = new HashMap<>();
+        Map<String, List<LogEntryDTO>> entriesByIndex = new HashMap<>();
         logQueue.drainTo(batch, 1000); // Bulk processing 1000 at a time
 
         if (!batch.isEmpty()) {
             for (LogEntryDTO dto : batch) {
-                LogEntryDocument doc = mapper.map(dto, LogEntryDocument.class);
-
-                IndexQuery indexQuery = new IndexQueryBuilder()
-                        .withObject(doc)
-                        .build();
-                indexNameToQueries.computeIfAbsent(dto.getIndexName(), k -> new ArrayList<>()).add(indexQuery);
+                entriesByIndex.computeIfAbsent(dto.getIndexName(), k -> new ArrayList<>()).add(dto);
             }
-            for (Map.Entry<String, List<IndexQuery>> entry : indexNameToQueries.entrySet()) {
+            for (Map.Entry<String, List<LogEntryDTO>> entry : entriesByIndex.entrySet()) {
                 String indexName = entry.getKey();
-                List<IndexQuery> queries = entry.getValue();
-                if (!queries.isEmpty()) {
-                    try {
-                        elasticsearchTemplate.bulkIndex(queries, IndexCoordinates.of(indexName));
-                        log.info("Saved {} logs to index '{}' using bulk API", queries.size(), indexName);
-                    } catch (Exception e) {
-                        log.error("Error during bulk indexing to index '{}'", indexName, e);
-                        // Handle specific index-related errors if needed
-                    } finally {
-                        // Clear the queries for this index after processing (success or failure)
-                        queries.clear(); // Clear the list of queries
-                    }
-                }
+                List<LogEntryDTO> entries = entry.getValue();
+                // Blocks while the Elasticsearch sink is saturated, which backs up logQueue and slows consumption
+                logSinkDispatcher.dispatch(indexName, entries);
             }
         }
     }
@@ -169,4 +183,16 @@ public class KafkaLogConsumer {
     private boolean isEndOfLogEntry(String nextLine) {
         return (nextLine == null || nextLine.trim().isEmpty()) || nextLine.trim().matches("^\\d{4}-\\d{2}-\\d{2}.*");
     }
+
+    private static final class PendingEntry {
+        private final String indexName;
+        private final String documentId;
+        private final StringBuilder text = new StringBuilder();
+
+        private PendingEntry(String indexName, String documentId, String firstLine) {
+            this.indexName = indexName;
+            this.documentId = documentId;
+            text.append(firstLine).append("\n");
+        }
+    }
 }
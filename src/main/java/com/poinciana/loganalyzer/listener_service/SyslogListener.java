@@ -0,0 +1,405 @@
+package com.poinciana.loganalyzer.listener_service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.service.LogGroupCommitter;
+import com.poinciana.loganalyzer.service.LogParserService;
+import com.poinciana.loganalyzer.service.LogSamplingService;
+import com.poinciana.loganalyzer.service.LogTailService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Native syslog input (RFC 5424 and RFC 3164) over UDP and TCP, independent of Kafka.
+ *
+ * A few NIO event loops, each with its own selector, do all socket work: the first one accepts TCP
+ * connections and reads the UDP socket, and accepted connections are spread round-robin over all loops.
+ * TCP streams are framed by octet counting ("LEN SP MSG", RFC 6587) when a frame starts with a digit, and by
+ * newlines otherwise. Messages are parsed by {@link LogParserService#parseSyslog}, sampled and handed to the
+ * {@link LogGroupCommitter}, so they share bulk requests with the HTTP ingest.
+ *
+ * Backpressure is per connection: a connection with log.syslog.max-in-flight-batches unwritten batches, or
+ * whose batch the committer rejected, stops being read until its writes complete, which lets the sender's
+ * TCP window fill up instead of buffering here. UDP has no flow control; datagrams arriving while the
+ * pipeline is saturated are dropped and counted.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "log.syslog.enabled", havingValue = "true")
+public class SyslogListener {
+
+    // Paused connections are retried at least this often, even if none of their writes complete
+    private static final long RETRY_INTERVAL_MS = 100;
+    private static final int MAX_DATAGRAMS_PER_WAKEUP = 256;
+    private static final int MAX_UDP_MESSAGE_BYTES = 65507;
+
+    private final LogParserService logParserService;
+    private final LogSamplingService logSamplingService;
+    private final LogGroupCommitter logGroupCommitter;
+    private final LogTailService logTailService;
+
+    @Value("${log.syslog.tcp-port:5514}")
+    private int tcpPort;
+    @Value("${log.syslog.udp-port:5514}")
+    private int udpPort;
+    @Value("${log.syslog.bind-address:0.0.0.0}")
+    private String bindAddress;
+    @Value("${log.syslog.index:syslog}")
+    private String indexName;
+    @Value("${log.syslog.event-loop-threads:2}")
+    private int eventLoopThreads;
+    @Value("${log.syslog.max-message-bytes:65536}")
+    private int maxMessageBytes;
+    @Value("${log.syslog.max-in-flight-batches:4}")
+    private int maxInFlightBatches;
+
+    private final List<EventLoop> eventLoops = new ArrayList<>();
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final AtomicLong droppedDatagrams = new AtomicLong();
+    private volatile boolean running;
+    private ServerSocketChannel serverChannel;
+    private DatagramChannel datagramChannel;
+
+    public SyslogListener(LogParserService logParserService, LogSamplingService logSamplingService,
+                          LogGroupCommitter logGroupCommitter, LogTailService logTailService) {
+        this.logParserService = logParserService;
+        this.logSamplingService = logSamplingService;
+        this.logGroupCommitter = logGroupCommitter;
+        this.logTailService = logTailService;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        running = true;
+        for (int i = 0; i < Math.max(1, eventLoopThreads); i++) {
+            eventLoops.add(new EventLoop(i));
+        }
+        Selector acceptor = eventLoops.get(0).selector;
+        if (tcpPort > 0) {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(bindAddress, tcpPort), 1024);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(acceptor, SelectionKey.OP_ACCEPT);
+        }
+        if (udpPort > 0) {
+            datagramChannel = DatagramChannel.open();
+            datagramChannel.bind(new InetSocketAddress(bindAddress, udpPort));
+            datagramChannel.configureBlocking(false);
+            datagramChannel.register(acceptor, SelectionKey.OP_READ);
+        }
+        eventLoops.forEach(loop -> loop.thread.start());
+        log.info("Syslog listener on {} (tcp {}, udp {}) with {} event loops, writing to '{}'",
+                bindAddress, tcpPort, udpPort, eventLoops.size(), indexName);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (EventLoop loop : eventLoops) {
+            loop.selector.wakeup();
+            try {
+                loop.thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeQuietly(serverChannel);
+        closeQuietly(datagramChannel);
+    }
+
+    public long getDroppedDatagrams() {
+        return droppedDatagrams.get();
+    }
+
+    private List<LogEntryDTO> parse(List<String> messages, SocketAddress sender) {
+        List<LogEntryDTO> entries = new ArrayList<>(messages.size());
+        String senderIp = sender instanceof InetSocketAddress address ? address.getAddress().getHostAddress() : null;
+        for (String message : messages) {
+            LogEntryDTO logEntryDTO = logParserService.parseSyslog(message);
+            logEntryDTO.setIndexName(indexName);
+            logEntryDTO.setHostIp(senderIp);
+            if (logEntryDTO.getHostName() == null) logEntryDTO.setHostName(senderIp);
+            logTailService.publish(logEntryDTO);
+            if (logSamplingService.sample(logEntryDTO)) entries.add(logEntryDTO);
+        }
+        return entries;
+    }
+
+    /**
+     * Moves every complete frame from the buffer (in read mode) into {@code messages}, leaving a partial frame
+     * in place. At end of stream a trailing line without newline is complete.
+     *
+     * @throws IllegalStateException if the stream is not valid syslog framing
+     */
+    static void frame(ByteBuffer buffer, boolean endOfStream, int maxMessageBytes, List<String> messages) {
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            int limit = buffer.limit();
+            byte first = buffer.get(start);
+            if (first >= '1' && first <= '9') {
+                int position = start;
+                long length = 0;
+                while (position < limit && Character.isDigit(buffer.get(position)) && position - start < 10) {
+                    length = length * 10 + (buffer.get(position++) - '0');
+                }
+                if (position == limit) break; // octet count not complete yet
+                if (buffer.get(position) != ' ') throw new IllegalStateException("malformed octet count");
+                if (length > maxMessageBytes) throw new IllegalStateException("message of " + length + " bytes");
+                if (limit - position - 1 < length) break;
+                messages.add(decode(buffer, position + 1, (int) length));
+                buffer.position(position + 1 + (int) length);
+            } else {
+                int newline = start;
+                while (newline < limit && buffer.get(newline) != '\n') newline++;
+                if (newline == limit && !endOfStream && limit - start < maxMessageBytes) break;
+                // a line longer than max-message-bytes is cut rather than stalling the connection
+                String message = decode(buffer, start, newline - start).strip();
+                if (!message.isEmpty()) messages.add(message);
+                buffer.position(Math.min(newline + 1, limit));
+            }
+        }
+    }
+
+    private static String decode(ByteBuffer buffer, int offset, int length) {
+        return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static void closeQuietly(Channel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final Set<Connection> paused = new HashSet<>();
+        private final ByteBuffer datagram = ByteBuffer.allocateDirect(MAX_UDP_MESSAGE_BYTES);
+
+        private EventLoop(int id) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "syslog-event-loop-" + id);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Runs the task on this loop's thread, which owns all state of the loop's connections.
+         */
+        private void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select(RETRY_INTERVAL_MS);
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) task.run();
+
+                    Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                    while (selected.hasNext()) {
+                        SelectionKey key = selected.next();
+                        selected.remove();
+                        if (!key.isValid()) continue;
+                        if (key.isAcceptable()) accept();
+                        else if (key.channel() == datagramChannel) readDatagrams();
+                        else if (key.isReadable()) ((Connection) key.attachment()).read();
+                    }
+                    if (!paused.isEmpty()) {
+                        new ArrayList<>(paused).forEach(Connection::tryResume);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.error("Syslog event loop error", e);
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection connection) connection.close();
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void accept() throws IOException {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                SocketChannel accepted = channel;
+                EventLoop owner = eventLoops.get(Math.floorMod(nextLoop.getAndIncrement(), eventLoops.size()));
+                owner.execute(() -> owner.register(accepted));
+            }
+        }
+
+        private void register(SocketChannel channel) {
+            try {
+                Connection connection = new Connection(this, channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            } catch (IOException e) {
+                log.warn("Failed to register syslog connection: {}", e.toString());
+                closeQuietly(channel);
+            }
+        }
+
+        private void readDatagrams() throws IOException {
+            List<String> messages = new ArrayList<>();
+            SocketAddress sender = null;
+            for (int i = 0; i < MAX_DATAGRAMS_PER_WAKEUP; i++) {
+                datagram.clear();
+                SocketAddress from = datagramChannel.receive(datagram);
+                if (from == null) break;
+                if (sender != null && !sender.equals(from)) {
+                    submitDatagrams(messages, sender);
+                    messages = new ArrayList<>();
+                }
+                sender = from;
+                datagram.flip();
+                String message = StandardCharsets.UTF_8.decode(datagram).toString().stripTrailing();
+                if (!message.isEmpty()) messages.add(message);
+            }
+            submitDatagrams(messages, sender);
+        }
+
+        private void submitDatagrams(List<String> messages, SocketAddress sender) {
+            if (messages.isEmpty()) return;
+            List<LogEntryDTO> entries = parse(messages, sender);
+            try {
+                logGroupCommitter.submit(indexName, entries).whenComplete((ignored, failure) -> {
+                    if (failure != null) log.warn("Failed to write {} syslog datagrams: {}", entries.size(), failure.toString());
+                });
+            } catch (RejectedExecutionException e) {
+                if (droppedDatagrams.getAndAdd(entries.size()) % 10_000 == 0) {
+                    log.warn("Ingest pipeline saturated, dropping syslog datagrams ({} so far)", droppedDatagrams.get());
+                }
+            }
+        }
+    }
+
+    /**
+     * One TCP connection; touched only by its event loop's thread.
+     */
+    private final class Connection {
+        private final EventLoop loop;
+        private final SocketChannel channel;
+        private final SocketAddress remote;
+        private final ByteBuffer buffer;
+        private SelectionKey key;
+        private List<LogEntryDTO> pending = List.of();
+        private int inFlight;
+        private boolean endOfStream;
+
+        private Connection(EventLoop loop, SocketChannel channel) throws IOException {
+            this.loop = loop;
+            this.channel = channel;
+            this.remote = channel.getRemoteAddress();
+            // Room for the largest message plus its octet count
+            this.buffer = ByteBuffer.allocate(maxMessageBytes + 16);
+        }
+
+        private void read() {
+            int read;
+            try {
+                read = channel.read(buffer);
+            } catch (IOException e) {
+                log.debug("Syslog connection from {} failed: {}", remote, e.toString());
+                close();
+                return;
+            }
+            if (read < 0) endOfStream = true;
+
+            List<String> messages = new ArrayList<>();
+            buffer.flip();
+            try {
+                frame(buffer, endOfStream, maxMessageBytes, messages);
+            } catch (IllegalStateException e) {
+                log.warn("Closing syslog connection from {}: {}", remote, e.getMessage());
+                close();
+                return;
+            }
+            buffer.compact();
+
+            if (!messages.isEmpty()) {
+                pending = parse(messages, remote);
+                tryResume();
+            }
+            if (endOfStream && pending.isEmpty()) close();
+        }
+
+        /**
+         * Hands pending entries to the committer if this connection is under its in-flight limit, and reads
+         * again only once nothing is left pending.
+         */
+        private void tryResume() {
+            if (!channel.isOpen()) {
+                loop.paused.remove(this);
+                return;
+            }
+            if (!pending.isEmpty() && inFlight < maxInFlightBatches) {
+                List<LogEntryDTO> batch = pending;
+                try {
+                    logGroupCommitter.submit(indexName, batch).whenComplete((ignored, failure) -> {
+                        if (failure != null) {
+                            log.warn("Failed to write {} syslog entries from {}: {}", batch.size(), remote, failure.toString());
+                        }
+                        loop.execute(() -> {
+                            inFlight--;
+                            tryResume();
+                        });
+                    });
+                    inFlight++;
+                    pending = List.of();
+                } catch (RejectedExecutionException e) {
+                    // committer saturated: keep the entries and retry on the next loop iteration
+                }
+            }
+            if (pending.isEmpty() && inFlight < maxInFlightBatches) {
+                loop.paused.remove(this);
+                if (endOfStream) close();
+                else if (key.isValid()) key.interestOps(SelectionKey.OP_READ);
+            } else {
+                loop.paused.add(this);
+                if (key.isValid()) key.interestOps(0);
+            }
+        }
+
+        private void close() {
+            loop.paused.remove(this);
+            if (!pending.isEmpty()) {
+                log.warn("Syslog connection from {} closed with {} entries not accepted", remote, pending.size());
+                pending = List.of();
+            }
+            if (key != null) key.cancel();
+            closeQuietly(channel);
+        }
+    }
+}
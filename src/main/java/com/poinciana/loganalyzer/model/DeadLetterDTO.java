@@ -0,0 +1,25 @@
+package com.poinciana.loganalyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A log entry Elasticsearch permanently rejected, with the reason attached.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterDTO {
+    private String indexName;
+    private int status;
+    private String errorType;
+    private String reason;
+    private int attempts;
+    private Instant failedAt;
+    private LogEntryDTO entry;
+}
@@ -0,0 +1,24 @@
+package com.poinciana.loganalyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestJobDTO {
+    private String id;
+    private IngestJobStatus status;
+    private String source;
+    private String indexName;
+    private double maxEntriesPerSecond;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private IngestSummaryDTO progress;
+}
@@ -0,0 +1,9 @@
+package com.poinciana.loganalyzer.model;
+
+public enum IngestJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,28 @@
+package com.poinciana.loganalyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress or final outcome of a file ingest. Entries count as ingested once every required sink wrote their batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestSummaryDTO {
+    private String source;
+    private String indexName;
+    private long entriesRead;
+    private long entriesIngested;
+    private long sampledOut;
+    private long parseFailures;
+    private long parseFallbacks;
+    private long failedBatches;
+    private long durationMs;
+    private double entriesPerSecond;
+    private boolean done;
+    private String error;
+}
@@ -24,4 +24,8 @@ public class LogEntryDTO {
     private String rawLog;
     private String indexName;
     private Map<String, Object> metadata;
+    // Set only on collapse summaries: occurrences suppressed within the window
+    private Long repeatCount;
+    private Instant firstSeen;
+    private Instant lastSeen;
 }
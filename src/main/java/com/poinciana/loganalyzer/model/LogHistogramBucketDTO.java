@@ -0,0 +1,20 @@
+package com.poinciana.loganalyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogHistogramBucketDTO {
+    private Instant start;
+    private long count;
+    // Count per value of the groupBy field (top values only); null without groupBy
+    private Map<String, Long> groups;
+}
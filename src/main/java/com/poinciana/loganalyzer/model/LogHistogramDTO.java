@@ -0,0 +1,24 @@
+package com.poinciana.loganalyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogHistogramDTO {
+    private String interval;
+    private String groupBy;
+    // Range covered by the buckets, aligned to the interval
+    private Instant from;
+    private Instant to;
+    private List<LogHistogramBucketDTO> buckets;
+    // How many of the buckets were served from the cache rather than Elasticsearch
+    private int cachedBuckets;
+}
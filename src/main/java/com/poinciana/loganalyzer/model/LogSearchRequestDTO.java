@@ -0,0 +1,38 @@
+package com.poinciana.loganalyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filters of a log search; every field is optional and set fields are combined with AND.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogSearchRequestDTO {
+    // Base index names; topics are resolved to their indices. Neither: all mapped indices and the default one
+    private List<String> indices;
+    private List<String> topics;
+    // Any of the values matches
+    private List<String> levels;
+    private List<String> serviceNames;
+    private List<String> hostNames;
+    private Instant from;
+    private Instant to;
+    // Full-text query on message and exception (simple_query_string syntax)
+    private String query;
+    // Exact values of metadata keys
+    private Map<String, String> metadata;
+    // Fields to return (_source filtering); all when empty
+    private List<String> fields;
+    private Integer size;
+    // nextCursor of the previous page; the filters must be the same as for the first page
+    private String cursor;
+}
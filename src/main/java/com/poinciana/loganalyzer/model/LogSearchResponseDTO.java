@@ -8,5 +8,9 @@ import java.util.List;
 @AllArgsConstructor
 public class LogSearchResponseDTO {
     private List<LogEntryDTO> logs;
+    // Counted on the first page only, -1 on later pages (and on a first page filled from the hot window alone
+    // when older logs are in range too)
     private long totalHits;
+    // Pass back as cursor for the next page; null on the last page
+    private String nextCursor;
 }
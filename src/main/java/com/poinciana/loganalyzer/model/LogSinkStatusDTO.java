@@ -0,0 +1,24 @@
+package com.poinciana.loganalyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogSinkStatusDTO {
+    private String name;
+    private boolean required;
+    private boolean healthy;
+    private int queuedBatches;
+    private long writtenBatches;
+    private long failedBatches;
+    private long droppedBatches;
+    private String lastError;
+    private Instant lastErrorAt;
+}
@@ -0,0 +1,15 @@
+package com.poinciana.loganalyzer.model;
+
+/**
+ * How the original log text is kept alongside the parsed fields of an indexed entry.
+ */
+public enum RawLogPolicy {
+    /** Keep rawLog as a searchable text field. */
+    ALWAYS,
+    /** Keep rawLog only for entries the parser could not fully handle (metadata.parseFallback is set). */
+    ON_PARSE_FALLBACK,
+    /** Keep the text in _source as rawLogStored, without indexing it. */
+    STORED_NOT_INDEXED,
+    /** Do not keep the raw text. */
+    DROP
+}
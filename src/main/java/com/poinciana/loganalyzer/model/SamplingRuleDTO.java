@@ -0,0 +1,24 @@
+package com.poinciana.loganalyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A sampling rule keyed by index, serviceName and level. A null or "*" key matches anything.
+ * {@code rate} is the fraction of matching entries to keep (1.0 keeps all), and
+ * {@code maxPerSecond} caps matching entries per index and service with a token bucket (0 disables it).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SamplingRuleDTO {
+    private String index;
+    private String serviceName;
+    private String level;
+    @Builder.Default
+    private double rate = 1.0;
+    private long maxPerSecond;
+}
@@ -0,0 +1,82 @@
+package com.poinciana.loganalyzer.scheduler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poinciana.loganalyzer.config.LogAlertConfig;
+import com.poinciana.loganalyzer.service.LogIndexRegistry;
+import com.poinciana.loganalyzer.service.LogIndexRouter;
+import com.poinciana.loganalyzer.service.interfaces.TopicIndexMapService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RestClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Enforces log.storage.retention-days by deleting whole dated indices ("&lt;base&gt;-yyyy.MM.dd") whose day
+ * is past retention. Only indices of known base indices whose name parses exactly as a dated index are touched.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexRetentionScheduler {
+
+    private final LogIndexRouter logIndexRouter;
+    private final LogIndexRegistry logIndexRegistry;
+    private final TopicIndexMapService topicIndexMapService;
+    private final LogAlertConfig logAlertConfig;
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${elasticsearch.index}")
+    private String defaultIndex;
+
+    @Scheduled(cron = "${log.storage.retention-cron:0 15 * * * *}")
+    public void dropExpiredIndices() {
+        if (!logIndexRouter.isRolloverEnabled() || logAlertConfig.getRetentionDays() <= 0) return;
+
+        LocalDate oldestKept = LocalDate.now(ZoneOffset.UTC).minusDays(logAlertConfig.getRetentionDays() - 1L);
+        Set<String> bases = new TreeSet<>(logIndexRouter.getKnownBases());
+        bases.addAll(topicIndexMapService.getCurrentMap().values());
+        bases.add(defaultIndex);
+
+        for (String base : bases) {
+            try {
+                List<String> expired = new ArrayList<>();
+                for (String indexName : listIndices(base + "-*")) {
+                    Optional<LocalDate> day = logIndexRouter.indexDay(base, indexName);
+                    if (day.isPresent() && day.get().isBefore(oldestKept)) expired.add(indexName);
+                }
+                for (String indexName : expired) {
+                    restClient.performRequest(new Request("DELETE", "/" + indexName));
+                    logIndexRegistry.invalidate(indexName);
+                    log.info("Deleted index '{}' past retention of {} days", indexName, logAlertConfig.getRetentionDays());
+                }
+            } catch (IOException e) {
+                log.error("Failed to enforce retention for base index '{}'", base, e);
+            }
+        }
+    }
+
+    private List<String> listIndices(String pattern) throws IOException {
+        Request request = new Request("GET", "/_cat/indices/" + pattern);
+        request.addParameter("format", "json");
+        request.addParameter("h", "index");
+        request.addParameter("expand_wildcards", "all");
+        JsonNode indices = objectMapper.readTree(restClient.performRequest(request).getEntity().getContent());
+        List<String> names = new ArrayList<>();
+        indices.forEach(index -> names.add(index.path("index").asText()));
+        return names;
+    }
+}
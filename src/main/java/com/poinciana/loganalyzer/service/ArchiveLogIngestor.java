@@ -0,0 +1,216 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.IngestSummaryDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Streams plain, .gz, .zip and .tar.gz/.tgz log files into the {@link StreamingLogIngestor} without unpacking
+ * them to disk. Every file inside an archive is read as its own sequence of entries.
+ *
+ * Decompression runs on a read-ahead thread that stays a few blocks ahead of the thread splitting lines into
+ * entries, which in turn feeds the parser pool, so inflating, line splitting and parsing overlap.
+ */
+@Slf4j
+@Service
+public class ArchiveLogIngestor {
+
+    private static final int READ_AHEAD_BLOCK_BYTES = 256 * 1024;
+    private static final int READ_AHEAD_BLOCKS = 8;
+
+    private final StreamingLogIngestor streamingLogIngestor;
+    private final ExecutorService readAhead = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "log-archive-read-ahead");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ArchiveLogIngestor(StreamingLogIngestor streamingLogIngestor) {
+        this.streamingLogIngestor = streamingLogIngestor;
+    }
+
+    public static boolean isCompressed(String fileName) {
+        return format(fileName) != Format.PLAIN;
+    }
+
+    /**
+     * Ingests the stream according to the file name's extension; unknown extensions are read as plain text.
+     */
+    public IngestSummaryDTO ingest(InputStream in, String fileName, String indexName, Long patternId,
+                                   Consumer<IngestSummaryDTO> progressListener) {
+        StreamingLogIngestor.IngestRun run = streamingLogIngestor.newRun(fileName, indexName, patternId, progressListener);
+        try {
+            ingest(in, fileName, run);
+        } catch (RuntimeException e) {
+            run.fail(e);
+        }
+        // whatever failed, in-flight batches are awaited and the run reports its outcome
+        return run.finish();
+    }
+
+    /**
+     * Feeds the stream into an existing run; source failures are recorded on the run.
+     */
+    public void ingest(InputStream in, String fileName, StreamingLogIngestor.IngestRun run) {
+        try (InputStream buffered = new BufferedInputStream(in, 64 * 1024)) {
+            switch (format(fileName)) {
+                case PLAIN -> readEntries(buffered, run);
+                case GZIP -> readEntries(new GzipCompressorInputStream(buffered, true), run);
+                case TAR_GZIP -> readArchive(new TarArchiveInputStream(new GzipCompressorInputStream(buffered, true)), run);
+                case ZIP -> readArchive(new ZipArchiveInputStream(buffered, StandardCharsets.UTF_8.name(), true, true), run);
+            }
+        } catch (IOException | RuntimeException e) {
+            run.fail(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        readAhead.shutdownNow();
+    }
+
+    private void readArchive(ArchiveInputStream<?> archive, StreamingLogIngestor.IngestRun run) throws IOException {
+        try (archive) {
+            ArchiveEntry entry;
+            while ((entry = archive.getNextEntry()) != null) {
+                if (entry.isDirectory() || !archive.canReadEntryData(entry)) continue;
+                log.debug("Ingesting archive entry '{}' ({} bytes)", entry.getName(), entry.getSize());
+                // The archive stream ends at the end of the current entry; read-ahead must not close it
+                readEntries(archive, run);
+            }
+        }
+    }
+
+    private void readEntries(InputStream decompressed, StreamingLogIngestor.IngestRun run) throws IOException {
+        try (ReadAheadInputStream ahead = new ReadAheadInputStream(decompressed);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(ahead, StandardCharsets.UTF_8))) {
+            run.readEntries(reader);
+        }
+    }
+
+    private static Format format(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) return Format.TAR_GZIP;
+        if (name.endsWith(".gz")) return Format.GZIP;
+        if (name.endsWith(".zip")) return Format.ZIP;
+        return Format.PLAIN;
+    }
+
+    private enum Format { PLAIN, GZIP, TAR_GZIP, ZIP }
+
+    /**
+     * Reads the source to its end on a read-ahead thread, a bounded number of blocks ahead of the consumer.
+     * Closing it stops the read-ahead but leaves the source open.
+     */
+    private final class ReadAheadInputStream extends InputStream {
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(READ_AHEAD_BLOCKS);
+        private volatile boolean closed;
+        private volatile Throwable failure;
+        private byte[] current;
+        private int position;
+
+        private ReadAheadInputStream(InputStream source) {
+            readAhead.execute(() -> fill(source));
+        }
+
+        private void fill(InputStream source) {
+            try {
+                while (!closed) {
+                    byte[] block = new byte[READ_AHEAD_BLOCK_BYTES];
+                    int length = source.readNBytes(block, 0, block.length);
+                    if (length > 0 && !offer(length < block.length ? Arrays.copyOf(block, length) : block)) break;
+                    if (length < block.length) break;
+                }
+            } catch (Throwable e) {
+                // malformed archives also fail with runtime exceptions
+                failure = e;
+            } finally {
+                // the consumer blocks until END arrives, so it is delivered even after an interrupt
+                boolean interrupted = Thread.interrupted();
+                while (!closed) {
+                    try {
+                        if (blocks.offer(END, 100, TimeUnit.MILLISECONDS)) break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * @return false if the stream was closed or the read-ahead interrupted; the latter is recorded as the failure
+         */
+        private boolean offer(byte[] block) {
+            try {
+                while (!closed) {
+                    if (blocks.offer(block, 100, TimeUnit.MILLISECONDS)) return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = new InterruptedIOException("Interrupted while reading ahead");
+            }
+            return false;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            if (current == null || position == current.length) {
+                if (current == END) return -1;
+                try {
+                    current = blocks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for decompressed data");
+                }
+                position = 0;
+                if (current == END) {
+                    if (failure instanceof IOException e) throw e;
+                    if (failure != null) throw new IOException("Reading the archive failed", failure);
+                    return -1;
+                }
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            blocks.clear();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.poinciana.loganalyzer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.poinciana.loganalyzer.model.DeadLetterDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parks log entries that Elasticsearch permanently rejected, with the rejection reason attached.
+ *
+ * Entries go to the Kafka topic configured in log.dead-letter.topic; when no topic is configured or
+ * the publish fails they are appended as NDJSON to a daily file under log.dead-letter.dir.
+ */
+@Slf4j
+@Service
+public class DeadLetterService {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Value("${log.dead-letter.topic:}")
+    private String deadLetterTopic;
+    @Value("${log.dead-letter.dir:logs/dead-letter}")
+    private String deadLetterDir;
+
+    public DeadLetterService(KafkaTemplate<String, String> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    public void publish(List<DeadLetterDTO> deadLetters) {
+        if (deadLetters.isEmpty()) return;
+        log.warn("Dead-lettering {} log entries for index '{}', first reason: [{}] {}", deadLetters.size(),
+                deadLetters.get(0).getIndexName(), deadLetters.get(0).getErrorType(), deadLetters.get(0).getReason());
+
+        if (deadLetterTopic != null && !deadLetterTopic.isBlank()) {
+            try {
+                CompletableFuture<?>[] sends = new CompletableFuture<?>[deadLetters.size()];
+                for (int i = 0; i < deadLetters.size(); i++) {
+                    DeadLetterDTO deadLetter = deadLetters.get(i);
+                    sends[i] = kafkaTemplate.send(deadLetterTopic, deadLetter.getIndexName(), objectMapper.writeValueAsString(deadLetter));
+                }
+                CompletableFuture.allOf(sends).get(30, TimeUnit.SECONDS);
+                return;
+            } catch (Exception e) {
+                log.error("Failed to publish dead letters to topic '{}', writing them to {}", deadLetterTopic, deadLetterDir, e);
+            }
+        }
+        writeToFile(deadLetters);
+    }
+
+    private synchronized void writeToFile(List<DeadLetterDTO> deadLetters) {
+        Path file = Paths.get(deadLetterDir, "dead-letter-" + LocalDate.now() + ".ndjson");
+        try {
+            Files.createDirectories(file.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (DeadLetterDTO deadLetter : deadLetters) {
+                    writer.write(objectMapper.writeValueAsString(deadLetter));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to write {} dead letters to {}, entries are lost", deadLetters.size(), file, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.service.interfaces.LogSink;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Indexes batches through the {@link LogBulkIngester}, which retries and dead-letters failed items itself.
+ * Runs elasticsearch.ingest.bulk-concurrency workers, so bulk requests use the whole ingest connection pool.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ElasticsearchLogSink implements LogSink {
+
+    private final LogBulkIngester logBulkIngester;
+    private volatile boolean healthy = true;
+
+    // one bulk request in flight per connection of the ingest client
+    @Value("${elasticsearch.ingest.bulk-concurrency:8}")
+    private int bulkConcurrency;
+
+    @Override
+    public String name() {
+        return "elasticsearch";
+    }
+
+    @Override
+    public void write(String indexName, List<LogEntryDTO> entries) throws IOException {
+        LogBulkWriter.BulkResult result = logBulkIngester.ingest(indexName, entries);
+        log.info("Saved {} logs to index '{}' using bulk API", result.succeeded(), indexName);
+        // Only a batch where nothing got through says something about the cluster rather than the documents
+        healthy = result.failed() < entries.size();
+        if (result.failed() > 0) {
+            throw new IOException(result.failed() + " of " + entries.size() + " logs for index '" + indexName
+                    + "' were rejected and dead-lettered");
+        }
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    @Override
+    public int concurrency() {
+        return bulkConcurrency;
+    }
+
+    @Override
+    public boolean isRequired() {
+        return true;
+    }
+}
@@ -0,0 +1,128 @@
+package com.poinciana.loganalyzer.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.service.interfaces.LogSink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archives entries as gzip-compressed NDJSON, one file per index and UTC hour under log.sink.file.dir.
+ *
+ * A file is kept open while its hour lasts and closed on flush, so every flush ends a complete gzip member;
+ * reopening appends a new member, which gzip readers treat as one continuous stream.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "log.sink.file.enabled", havingValue = "true")
+public class FileArchiveLogSink implements LogSink {
+
+    private static final DateTimeFormatter HOUR = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            // entries are streamed one after another into the same archive file
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    private final Map<Path, OutputStream> openFiles = new HashMap<>();
+    private volatile boolean healthy = true;
+
+    @Value("${log.sink.file.dir:logs/archive}")
+    private String archiveDir;
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void write(String indexName, List<LogEntryDTO> entries) throws IOException {
+        Path file = Paths.get(archiveDir, indexName,
+                indexName + "-" + HOUR.format(LocalDateTime.now(ZoneOffset.UTC)) + ".ndjson.gz");
+        try {
+            OutputStream out = openFiles.get(file);
+            if (out == null) {
+                closeOtherHours(indexName, file);
+                Files.createDirectories(file.getParent());
+                out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024), 64 * 1024);
+                openFiles.put(file, out);
+            }
+            for (LogEntryDTO entry : entries) {
+                objectMapper.writeValue(out, entry);
+                out.write('\n');
+            }
+            healthy = true;
+        } catch (IOException e) {
+            healthy = false;
+            closeQuietly(file);
+            throw e;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        IOException failure = null;
+        for (Iterator<Map.Entry<Path, OutputStream>> it = openFiles.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, OutputStream> open = it.next();
+            it.remove();
+            try {
+                open.getValue().close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            healthy = false;
+            throw failure;
+        }
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    private void closeOtherHours(String indexName, Path current) throws IOException {
+        Path indexDir = current.getParent();
+        for (Iterator<Map.Entry<Path, OutputStream>> it = openFiles.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, OutputStream> open = it.next();
+            if (open.getKey().getParent().equals(indexDir)) {
+                it.remove();
+                open.getValue().close();
+                log.debug("Closed archive file {} for index '{}'", open.getKey(), indexName);
+            }
+        }
+    }
+
+    private void closeQuietly(Path file) {
+        OutputStream out = openFiles.remove(file);
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Failed to close archive file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Host name and address of this instance, looked up once: InetAddress.getLocalHost() can take a DNS round trip
+ * and used to run for every ingested log.
+ */
+@Slf4j
+@Service
+public class HostDetailsProvider {
+
+    private volatile InetAddress localHost;
+    private volatile String hostName;
+
+    public void apply(LogEntryDTO logEntryDTO) {
+        InetAddress address = resolve();
+        if (address == null) return;
+        logEntryDTO.setHostName(hostName);
+        logEntryDTO.setHostIp(address.getHostAddress());
+    }
+
+    private InetAddress resolve() {
+        if (localHost == null) {
+            synchronized (this) {
+                if (localHost == null) {
+                    try {
+                        InetAddress address = InetAddress.getLocalHost();
+                        hostName = address.getHostName();
+                        localHost = address;
+                    } catch (UnknownHostException e) {
+                        // not cached, so a later call can succeed once name resolution works
+                        log.warn("Failed to retrieve host details", e);
+                    }
+                }
+            }
+        }
+        return localHost;
+    }
+}
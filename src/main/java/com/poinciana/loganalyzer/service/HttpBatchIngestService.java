@@ -0,0 +1,173 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.IngestSummaryDTO;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Ingests request bodies with one log per line (plain text or JSON, optionally gzip-compressed) through the
+ * {@link LogGroupCommitter}, so concurrent agents share bulk requests instead of sending one document each.
+ * The call returns once every accepted entry has been written.
+ */
+@Slf4j
+@Service
+public class HttpBatchIngestService {
+
+    private final LogParserService logParserService;
+    private final LogSamplingService logSamplingService;
+    private final LogGroupCommitter logGroupCommitter;
+    private final HostDetailsProvider hostDetailsProvider;
+    private final LogTailService logTailService;
+
+    @Value("${elasticsearch.index}")
+    private String defaultIndex;
+    @Value("${log.ingest.http.max-batch-entries:5000}")
+    private int maxBatchEntries;
+    @Value("${log.ingest.http.ack-timeout-ms:30000}")
+    private long ackTimeoutMs;
+    @Value("${log.ingest.deterministic-ids:false}")
+    private boolean deterministicIds;
+
+    public HttpBatchIngestService(LogParserService logParserService, LogSamplingService logSamplingService,
+                                  LogGroupCommitter logGroupCommitter, HostDetailsProvider hostDetailsProvider,
+                                  LogTailService logTailService) {
+        this.logParserService = logParserService;
+        this.logSamplingService = logSamplingService;
+        this.logGroupCommitter = logGroupCommitter;
+        this.hostDetailsProvider = hostDetailsProvider;
+        this.logTailService = logTailService;
+    }
+
+    public boolean isSaturated() {
+        return logGroupCommitter.isSaturated();
+    }
+
+    /**
+     * If the pipeline saturates part way through the body, reading stops and the summary comes back with
+     * done=false: entriesRead then counts the non-blank lines that were handled, and the client should resend
+     * only the lines after them, since the earlier chunks are already accepted.
+     */
+    public IngestSummaryDTO ingest(InputStream body, boolean gzip, String indexName, Long patternId) throws IOException {
+        String index = indexName == null || indexName.isBlank() ? defaultIndex : indexName;
+        long start = System.nanoTime();
+        long read = 0, sampledOut = 0, parseFailures = 0, parseFallbacks = 0, accepted = 0;
+        // counters as of the last accepted chunk, reported instead when a later chunk is rejected
+        long handledRead = 0, handledSampledOut = 0, handledParseFailures = 0, handledParseFallbacks = 0;
+        boolean rejected = false;
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        List<Integer> writeSizes = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                gzip ? new GZIPInputStream(body, 64 * 1024) : body, StandardCharsets.UTF_8))) {
+            List<LogEntryDTO> chunk = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                read++;
+                try {
+                    LogEntryDTO logEntryDTO = logParserService.grokLogParser(line, patternId);
+                    logEntryDTO.setIndexName(index);
+                    if (deterministicIds) {
+                        logEntryDTO.setId(LogDocumentIds.fromContent(line));
+                    }
+                    logTailService.publish(logEntryDTO);
+                    if (logEntryDTO.getMetadata() != null && logEntryDTO.getMetadata().containsKey("parseFallback")) {
+                        parseFallbacks++;
+                    }
+                    if (!logSamplingService.sample(logEntryDTO)) {
+                        sampledOut++;
+                        continue;
+                    }
+                    hostDetailsProvider.apply(logEntryDTO);
+                    chunk.add(logEntryDTO);
+                } catch (Exception e) {
+                    parseFailures++;
+                    log.error("Failed to process log entry: {}", line, e);
+                }
+                if (chunk.size() >= maxBatchEntries) {
+                    try {
+                        writes.add(logGroupCommitter.submit(index, chunk));
+                    } catch (RejectedExecutionException e) {
+                        rejected = true;
+                        break;
+                    }
+                    writeSizes.add(chunk.size());
+                    accepted += chunk.size();
+                    chunk = new ArrayList<>();
+                    handledRead = read;
+                    handledSampledOut = sampledOut;
+                    handledParseFailures = parseFailures;
+                    handledParseFallbacks = parseFallbacks;
+                }
+            }
+            if (!rejected && !chunk.isEmpty()) {
+                try {
+                    writes.add(logGroupCommitter.submit(index, chunk));
+                    writeSizes.add(chunk.size());
+                    accepted += chunk.size();
+                } catch (RejectedExecutionException e) {
+                    rejected = true;
+                }
+            }
+        }
+        if (rejected) {
+            read = handledRead;
+            sampledOut = handledSampledOut;
+            parseFailures = handledParseFailures;
+            parseFallbacks = handledParseFallbacks;
+        }
+
+        long ingested = 0, failedBatches = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        for (int i = 0; i < writes.size(); i++) {
+            try {
+                writes.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                ingested += writeSizes.get(i);
+            } catch (ExecutionException | TimeoutException e) {
+                failedBatches++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedBatches += writes.size() - i;
+                break;
+            }
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        if (rejected) {
+            log.warn("Pipeline saturated while ingesting into '{}', stopped after {} lines", index, read);
+        }
+        if (failedBatches > 0) {
+            log.warn("{} of {} accepted logs for index '{}' were not confirmed written", accepted - ingested, accepted, index);
+        }
+        return IngestSummaryDTO.builder()
+                .source("http")
+                .indexName(index)
+                .entriesRead(read)
+                .entriesIngested(ingested)
+                .sampledOut(sampledOut)
+                .parseFailures(parseFailures)
+                .parseFallbacks(parseFallbacks)
+                .failedBatches(failedBatches)
+                .durationMs(durationMs)
+                .entriesPerSecond(durationMs > 0 ? ingested * 1000.0 / durationMs : 0)
+                .done(!rejected)
+                .error(rejected ? "Ingest pipeline saturated, resend the lines after the first " + read : null)
+                .build();
+    }
+}
@@ -0,0 +1,236 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.IngestJobDTO;
+import com.poinciana.loganalyzer.model.IngestJobStatus;
+import com.poinciana.loganalyzer.model.IngestSummaryDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs file ingests as background jobs that can be polled and cancelled.
+ *
+ * At most log.ingest.jobs.max-concurrent jobs run at once, later ones wait in submission order, and every job
+ * is throttled to at most log.ingest.jobs.max-entries-per-second, so backfills leave Elasticsearch capacity for
+ * live Kafka ingestion. Uploads are spooled to a temp file first because the request ends on submission.
+ */
+@Slf4j
+@Service
+public class IngestJobService {
+
+    private final StreamingLogIngestor streamingLogIngestor;
+    private final ArchiveLogIngestor archiveLogIngestor;
+    private final MappedFileIngestor mappedFileIngestor;
+    private final ExecutorService jobRunner;
+    private final Map<String, IngestJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${log.ingest.jobs.max-entries-per-second:0}")
+    private double maxEntriesPerSecond;
+    @Value("${log.ingest.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    public IngestJobService(StreamingLogIngestor streamingLogIngestor, ArchiveLogIngestor archiveLogIngestor,
+                            MappedFileIngestor mappedFileIngestor,
+                            @Value("${log.ingest.jobs.max-concurrent:2}") int maxConcurrentJobs) {
+        this.streamingLogIngestor = streamingLogIngestor;
+        this.archiveLogIngestor = archiveLogIngestor;
+        this.mappedFileIngestor = mappedFileIngestor;
+        this.jobRunner = Executors.newFixedThreadPool(maxConcurrentJobs);
+    }
+
+    public IngestJobDTO submitUpload(MultipartFile file, Long patternId, String indexName, Double entriesPerSecond) {
+        Path spool;
+        try {
+            spool = Files.createTempFile("ingest-job-", "-" + sanitize(file.getOriginalFilename()));
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error spooling uploaded log file", e);
+        }
+        return submit(file.getOriginalFilename(), indexName, patternId, entriesPerSecond, spool, true);
+    }
+
+    /**
+     * @param path path relative to log.ingest.local.dir
+     * @throws IllegalArgumentException if the path is not a file inside the local ingest directory
+     */
+    public IngestJobDTO submitLocal(String path, Long patternId, String indexName, Double entriesPerSecond) {
+        return submit(path, indexName, patternId, entriesPerSecond, mappedFileIngestor.resolve(path), false);
+    }
+
+    public Optional<IngestJobDTO> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(IngestJob::toDTO);
+    }
+
+    public List<IngestJobDTO> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(job -> job.submittedAt))
+                .map(IngestJob::toDTO)
+                .toList();
+    }
+
+    /**
+     * Cancels a queued job, or stops a running one after the batches it already handed to the sinks.
+     */
+    public Optional<IngestJobDTO> cancel(String id) {
+        IngestJob job = jobs.get(id);
+        if (job == null) return Optional.empty();
+        synchronized (job) {
+            if (job.status == IngestJobStatus.QUEUED) {
+                // execute() sees the status and returns if it starts anyway
+                if (job.future != null) job.future.cancel(false);
+                job.finish(IngestJobStatus.CANCELLED, null);
+            } else if (job.status == IngestJobStatus.RUNNING) {
+                job.run.cancel();
+            }
+        }
+        return Optional.of(job.toDTO());
+    }
+
+    @Scheduled(fixedDelayString = "${log.ingest.jobs.cleanup-interval-ms:300000}")
+    public void removeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retentionMinutes, ChronoUnit.MINUTES);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> {
+            synchronized (job) {
+                // queued jobs never start, finishing them removes their spooled upload
+                if (job.status == IngestJobStatus.QUEUED) job.finish(IngestJobStatus.CANCELLED, null);
+                else if (job.run != null) job.run.cancel();
+            }
+        });
+        jobRunner.shutdownNow();
+    }
+
+    private IngestJobDTO submit(String source, String indexName, Long patternId, Double entriesPerSecond,
+                                Path file, boolean spooled) {
+        IngestJob job = new IngestJob(UUID.randomUUID().toString(), source, indexName, patternId,
+                effectiveRate(entriesPerSecond), spooled ? file : null);
+        jobs.put(job.id, job);
+        job.future = jobRunner.submit(() -> execute(job, file));
+        log.info("Queued ingest job {} for '{}' into index '{}'", job.id, source, indexName);
+        return job.toDTO();
+    }
+
+    private void execute(IngestJob job, Path file) {
+        try {
+            synchronized (job) {
+                if (job.status != IngestJobStatus.QUEUED) return;
+                job.run = streamingLogIngestor.newRun(job.source, job.indexName, job.patternId, null);
+                job.run.limitRate(job.maxEntriesPerSecond);
+                job.status = IngestJobStatus.RUNNING;
+                job.startedAt = Instant.now();
+            }
+            if (ArchiveLogIngestor.isCompressed(file.toString())) {
+                // spooled uploads keep the original name as suffix, so compressed uploads are still recognised
+                archiveLogIngestor.ingest(Files.newInputStream(file), file.getFileName().toString(), job.run);
+            } else {
+                mappedFileIngestor.ingest(file, job.run);
+            }
+            IngestSummaryDTO summary = job.run.finish();
+            IngestJobStatus status = job.run.isCancelled() ? IngestJobStatus.CANCELLED
+                    : summary.getError() != null ? IngestJobStatus.FAILED : IngestJobStatus.COMPLETED;
+            job.finish(status, summary);
+        } catch (IOException | RuntimeException e) {
+            log.error("Ingest job {} failed", job.id, e);
+            IngestSummaryDTO summary = null;
+            if (job.run != null) {
+                job.run.fail(e);
+                summary = job.run.finish();
+            }
+            job.finish(IngestJobStatus.FAILED, summary);
+        }
+    }
+
+    /**
+     * A requested rate can lower the configured cap, never raise it.
+     */
+    private double effectiveRate(Double requested) {
+        if (requested == null || requested <= 0) return maxEntriesPerSecond;
+        return maxEntriesPerSecond > 0 ? Math.min(requested, maxEntriesPerSecond) : requested;
+    }
+
+    private static String sanitize(String fileName) {
+        String name = fileName == null ? "upload" : Path.of(fileName).getFileName().toString();
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static final class IngestJob {
+        private final String id;
+        private final String source;
+        private final String indexName;
+        private final Long patternId;
+        private final double maxEntriesPerSecond;
+        private volatile StreamingLogIngestor.IngestRun run;
+        private final Instant submittedAt = Instant.now();
+        private volatile IngestJobStatus status = IngestJobStatus.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile IngestSummaryDTO summary;
+        private volatile Future<?> future;
+        // temp copy of an upload, removed when the job finishes however it ends; null for local files
+        private final Path spool;
+
+        private IngestJob(String id, String source, String indexName, Long patternId, double maxEntriesPerSecond,
+                          Path spool) {
+            this.id = id;
+            this.source = source;
+            this.indexName = indexName;
+            this.patternId = patternId;
+            this.maxEntriesPerSecond = maxEntriesPerSecond;
+            this.spool = spool;
+        }
+
+        private synchronized void finish(IngestJobStatus finalStatus, IngestSummaryDTO finalSummary) {
+            status = finalStatus;
+            summary = finalSummary;
+            finishedAt = Instant.now();
+            log.info("Ingest job {} for '{}' finished: {}", id, source, finalStatus);
+            if (spool != null) {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException e) {
+                    log.warn("Failed to delete spooled upload {}", spool, e);
+                }
+            }
+        }
+
+        private IngestJobDTO toDTO() {
+            return IngestJobDTO.builder()
+                    .id(id)
+                    .status(status)
+                    .source(source)
+                    .indexName(indexName)
+                    .maxEntriesPerSecond(maxEntriesPerSecond)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .progress(summary != null ? summary : run != null ? run.snapshot() : null)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.poinciana.loganalyzer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.service.interfaces.LogSink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-publishes parsed entries as JSON to log.sink.kafka.topic, keyed by index name, for downstream consumers
+ * that want structured logs without parsing them again.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "log.sink.kafka.enabled", havingValue = "true")
+public class KafkaRepublishLogSink implements LogSink {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private volatile boolean healthy = true;
+
+    @Value("${log.sink.kafka.topic}")
+    private String topic;
+    @Value("${log.sink.kafka.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    public KafkaRepublishLogSink(KafkaTemplate<String, String> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "kafka";
+    }
+
+    @Override
+    public void write(String indexName, List<LogEntryDTO> entries) throws IOException {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            sends[i] = kafkaTemplate.send(topic, indexName, objectMapper.writeValueAsString(entries.get(i)));
+        }
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            healthy = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while publishing to topic '" + topic + "'", e);
+        } catch (Exception e) {
+            healthy = false;
+            throw new IOException("Failed to publish " + entries.size() + " logs to topic '" + topic + "'", e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return healthy;
+    }
+}
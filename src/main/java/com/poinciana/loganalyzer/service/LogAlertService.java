@@ -22,6 +22,7 @@ public class LogAlertService {
 
     private final ElasticsearchClient elasticsearchClient;
     private final LogAlertConfig logAlertConfig;
+    private final LogIndexRouter logIndexRouter;
     private SchedulingConfig schedulingConfig;
     @Value("${log.alert.time-window-minutes:10}") // Get the value in minutes
     private int timeWindowMinutes;
@@ -51,11 +52,13 @@ public class LogAlertService {
         long now = System.currentTimeMillis();
         long from = now - Duration.ofMinutes(minutes).toMillis();
         SearchRequest request = new SearchRequest.Builder()
-                .index(index)
+                .index(logIndexRouter.readTarget(index))
+                .ignoreUnavailable(true)
                 .size(0)
                 .query(q -> q
                         .bool(b -> b
-                                .must(m -> m.match(t -> t.field("level.keyword").query("ERROR")))
+                                // "level" is a keyword in templated indices and analyzed text in older ones; match works for both
+                                .must(m -> m.match(t -> t.field("level").query("ERROR")))
                                 .filter(f -> f.range(r -> r
                                         .untyped(ut -> ut  // Use untyped() for generic range queries
                                                 .field("timestamp") // Field is set here
@@ -65,16 +68,11 @@ public class LogAlertService {
                                 ))
                         )
                 )
-                .aggregations("error_count", a -> a
-                        .valueCount(vc -> vc.field("level.keyword"))
-                )
+                .trackTotalHits(t -> t.enabled(true))
                 .build();
 
         SearchResponse<Void> response = elasticsearchClient.search(request, Void.class);
-
-        // ✅ FIX: Properly handle double conversion
-        double countValue = response.aggregations().get("error_count").valueCount().value();
-        return (int) Math.round(countValue);
+        return (int) response.hits().total().value();
     }
 
     /**
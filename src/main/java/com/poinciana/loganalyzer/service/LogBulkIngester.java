@@ -0,0 +1,216 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.config.RawLogStorageConfig;
+import com.poinciana.loganalyzer.model.DeadLetterDTO;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.model.RawLogPolicy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.ConnectionClosedException;
+import org.elasticsearch.client.ResponseException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bulk indexing with per-item failure handling on top of {@link LogBulkWriter}.
+ *
+ * Every item response is inspected: items rejected with a retriable status (429 and 5xx gateway/unavailable)
+ * are re-sent alone with jittered exponential backoff, successful and conflicting items are never re-sent,
+ * and items that are permanently rejected or run out of attempts are handed to the {@link DeadLetterService}.
+ * The target index is created on first use through the {@link LogIndexRegistry}, and re-checked when items
+ * come back with index_not_found.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LogBulkIngester {
+
+    private static final Set<Integer> RETRIABLE_STATUSES = Set.of(429, 502, 503, 504);
+    private static final String INDEX_NOT_FOUND = "index_not_found_exception";
+
+    private final LogBulkWriter logBulkWriter;
+    private final DeadLetterService deadLetterService;
+    private final LogIndexRouter logIndexRouter;
+    private final LogIndexRegistry logIndexRegistry;
+    private final RawLogStorageConfig rawLogStorageConfig;
+
+    @Value("${log.bulk.retry.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${log.bulk.retry.initial-backoff-ms:200}")
+    private long initialBackoffMs;
+    @Value("${log.bulk.retry.max-backoff-ms:10000}")
+    private long maxBackoffMs;
+
+    /**
+     * Indexes the entries into the physical indices of the given base index, retrying failed items until
+     * they succeed, are permanently rejected or the attempts are exhausted.
+     *
+     * @return the final outcome of every entry, in input order
+     */
+    public LogBulkWriter.BulkResult ingest(String baseIndex, List<LogEntryDTO> entries) {
+        RawLogPolicy rawLogPolicy = rawLogStorageConfig.policyFor(baseIndex);
+        if (!logIndexRouter.isRolloverEnabled()) {
+            return ingestToIndex(baseIndex, entries, rawLogPolicy);
+        }
+
+        Map<String, List<Integer>> positionsByIndex = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            String writeIndex = logIndexRouter.writeIndex(baseIndex, entries.get(i).getTimestamp());
+            positionsByIndex.computeIfAbsent(writeIndex, k -> new ArrayList<>()).add(i);
+        }
+        if (positionsByIndex.size() == 1) {
+            return ingestToIndex(positionsByIndex.keySet().iterator().next(), entries, rawLogPolicy);
+        }
+
+        LogBulkWriter.BulkItemResult[] outcomes = new LogBulkWriter.BulkItemResult[entries.size()];
+        positionsByIndex.forEach((writeIndex, positions) -> {
+            List<LogEntryDTO> partition = new ArrayList<>(positions.size());
+            for (int position : positions) partition.add(entries.get(position));
+            List<LogBulkWriter.BulkItemResult> items = ingestToIndex(writeIndex, partition, rawLogPolicy).items();
+            for (int i = 0; i < positions.size(); i++) outcomes[positions.get(i)] = items.get(i);
+        });
+        return new LogBulkWriter.BulkResult(Arrays.asList(outcomes));
+    }
+
+    private LogBulkWriter.BulkResult ingestToIndex(String indexName, List<LogEntryDTO> entries, RawLogPolicy rawLogPolicy) {
+        LogBulkWriter.BulkItemResult[] outcomes = new LogBulkWriter.BulkItemResult[entries.size()];
+        List<Integer> pending = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) pending.add(i);
+
+        int attempt = 1;
+        while (!pending.isEmpty()) {
+            logIndexRegistry.ensureIndex(indexName);
+            List<LogEntryDTO> batch = new ArrayList<>(pending.size());
+            for (int position : pending) batch.add(entries.get(position));
+
+            List<Integer> retry = new ArrayList<>();
+            boolean lastAttempt = attempt >= maxAttempts;
+            try {
+                List<LogBulkWriter.BulkItemResult> items = logBulkWriter.write(indexName, batch, rawLogPolicy).items();
+                if (items.size() != batch.size()) {
+                    // the batch was applied in some unknown way: re-sending could duplicate documents without ids
+                    fail(pending, entries, outcomes, -1, "response_mismatch",
+                            "_bulk returned " + items.size() + " items for " + batch.size() + " documents");
+                } else {
+                    for (int i = 0; i < items.size(); i++) {
+                        LogBulkWriter.BulkItemResult item = items.get(i);
+                        if (item.isFailure() && INDEX_NOT_FOUND.equals(item.errorType())) {
+                            // Deleted since it was cached (or auto-create is off): check and create again next attempt
+                            logIndexRegistry.invalidate(indexName);
+                        }
+                        if (item.isFailure() && isRetriable(item) && !lastAttempt) {
+                            retry.add(pending.get(i));
+                        } else {
+                            outcomes[pending.get(i)] = item;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                int status = e instanceof ResponseException responseException
+                        ? responseException.getResponse().getStatusLine().getStatusCode() : -1;
+                // A dropped connection or timeout is as retriable as an explicit 429/503; other failures without
+                // a response (such as an unreadable response) may come after the batch was applied
+                boolean retriable = status == -1 ? isConnectionFailure(e) : RETRIABLE_STATUSES.contains(status);
+                if (retriable && !lastAttempt) {
+                    log.warn("Bulk request to index '{}' failed (attempt {}/{}), retrying {} logs: {}",
+                            indexName, attempt, maxAttempts, batch.size(), e.getMessage());
+                    retry.addAll(pending);
+                } else {
+                    fail(pending, entries, outcomes, status, "request_failed", e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.error("Bulk request to index '{}' failed for {} logs", indexName, batch.size(), e);
+                fail(pending, entries, outcomes, -1, "request_failed", e.toString());
+            }
+
+            if (!retry.isEmpty() && !sleepBeforeRetry(attempt)) {
+                for (int position : retry) {
+                    outcomes[position] = new LogBulkWriter.BulkItemResult(entries.get(position).getId(), -1,
+                            "interrupted", "Interrupted while waiting to retry");
+                }
+                retry.clear();
+            }
+            pending = retry;
+            attempt++;
+        }
+
+        LogBulkWriter.BulkResult result = new LogBulkWriter.BulkResult(Arrays.asList(outcomes));
+        handleFailures(indexName, entries, result, attempt - 1);
+        return result;
+    }
+
+    private static void fail(List<Integer> positions, List<LogEntryDTO> entries, LogBulkWriter.BulkItemResult[] outcomes,
+                             int status, String errorType, String reason) {
+        for (int position : positions) {
+            outcomes[position] = new LogBulkWriter.BulkItemResult(entries.get(position).getId(), status, errorType, reason);
+        }
+    }
+
+    /**
+     * Refused, reset or timed out connections; the RestClient may wrap them, so causes are checked too.
+     */
+    private static boolean isConnectionFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof SocketTimeoutException
+                    || cause instanceof ConnectionClosedException) return true;
+        }
+        return false;
+    }
+
+    private boolean isRetriable(LogBulkWriter.BulkItemResult item) {
+        return RETRIABLE_STATUSES.contains(item.status()) || INDEX_NOT_FOUND.equals(item.errorType());
+    }
+
+    private void handleFailures(String indexName, List<LogEntryDTO> entries, LogBulkWriter.BulkResult result, int attempts) {
+        long conflicts = result.conflicts();
+        if (conflicts > 0) {
+            log.info("Skipped {} already indexed logs (replay) in index '{}'", conflicts, indexName);
+        }
+
+        List<DeadLetterDTO> deadLetters = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < entries.size(); i++) {
+            LogBulkWriter.BulkItemResult item = result.items().get(i);
+            if (!item.isFailure()) continue;
+            deadLetters.add(DeadLetterDTO.builder()
+                    .indexName(indexName)
+                    .status(item.status())
+                    .errorType(item.errorType())
+                    .reason(item.errorReason())
+                    .attempts(attempts)
+                    .failedAt(now)
+                    .entry(entries.get(i))
+                    .build());
+        }
+        deadLetterService.publish(deadLetters);
+    }
+
+    /**
+     * Jittered exponential backoff: a random delay between half and all of min(max, initial * 2^(attempt-1)).
+     *
+     * @return false if interrupted
+     */
+    private boolean sleepBeforeRetry(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
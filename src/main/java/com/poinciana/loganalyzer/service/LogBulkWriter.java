@@ -0,0 +1,295 @@
+package com.poinciana.loganalyzer.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.model.RawLogPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Serializes {@link LogEntryDTO}s straight into an NDJSON _bulk body and sends it with the low-level RestClient.
+ *
+ * This skips the ModelMapper -> LogEntryDocument -> IndexQuery -> Spring Data conversion chain: requests reuse
+ * Jackson generators and output buffers from a small pool (one per bulk worker), field names are pre-encoded,
+ * and Instants are written as epoch millis. Documents carrying an id are sent with create semantics so replays end up as 409 conflicts.
+ * The raw log text is written according to the index's {@link RawLogPolicy}; the entries themselves are not
+ * modified, so dead letters still carry it.
+ */
+@Slf4j
+@Service
+public class LogBulkWriter {
+
+    private static final ContentType NDJSON = ContentType.create("application/x-ndjson", StandardCharsets.UTF_8);
+    // Buffers grown beyond this by an unusually large batch are not kept for reuse
+    private static final int MAX_RETAINED_BUFFER = 8 * 1024 * 1024;
+
+    private static final SerializedString CREATE = new SerializedString("create");
+    private static final SerializedString INDEX = new SerializedString("index");
+    private static final SerializedString META_INDEX = new SerializedString("_index");
+    private static final SerializedString META_ID = new SerializedString("_id");
+
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString LEVEL = new SerializedString("level");
+    private static final SerializedString SERVICE_NAME = new SerializedString("serviceName");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString EXCEPTION = new SerializedString("exception");
+    private static final SerializedString RAW_LOG = new SerializedString("rawLog");
+    private static final SerializedString RAW_LOG_STORED = new SerializedString("rawLogStored");
+    private static final SerializedString HOST_NAME = new SerializedString("hostName");
+    private static final SerializedString HOST_IP = new SerializedString("hostIp");
+    private static final SerializedString METADATA = new SerializedString("metadata");
+    private static final SerializedString REPEAT_COUNT = new SerializedString("repeatCount");
+    private static final SerializedString FIRST_SEEN = new SerializedString("firstSeen");
+    private static final SerializedString LAST_SEEN = new SerializedString("lastSeen");
+
+    private final RestClient restClient;
+    // the application's mapper, so metadata values such as Instant and LocalDateTime serialize
+    private final ObjectMapper objectMapper;
+    // idle buffers; callers beyond the pool size get a fresh one that is dropped if the pool is full again
+    private final BlockingQueue<BulkBuffer> buffers;
+
+    public LogBulkWriter(@Qualifier("ingestRestClient") RestClient restClient, ObjectMapper objectMapper,
+                         @Value("${elasticsearch.ingest.bulk-concurrency:8}") int pooledBuffers) {
+        this.restClient = restClient;
+        this.objectMapper = objectMapper;
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, pooledBuffers));
+    }
+
+    /**
+     * Writes the entries to the given index in a single _bulk request, keeping raw log text as the policy says.
+     *
+     * @return per-item outcome, in request order
+     * @throws IOException if the request as a whole failed
+     */
+    public BulkResult write(String indexName, List<LogEntryDTO> entries, RawLogPolicy rawLogPolicy) throws IOException {
+        if (entries.isEmpty()) return new BulkResult(List.of());
+
+        BulkBuffer buffer = acquireBuffer();
+        // on failure the generator state is unknown, so the buffer is simply not returned to the pool
+        JsonGenerator generator = buffer.generator;
+        for (LogEntryDTO entry : entries) {
+            writeAction(generator, indexName, entry.getId());
+            writeDocument(generator, entry, rawLogPolicy);
+        }
+        generator.flush();
+
+        Request request = new Request("POST", "/_bulk");
+        request.setEntity(new ByteArrayEntity(buffer.out.buffer(), 0, buffer.out.size(), NDJSON));
+        Response response = restClient.performRequest(request);
+
+        BulkResult result = readResponse(response, entries.size());
+        releaseBuffer(buffer);
+        return result;
+    }
+
+    private void writeRawLog(JsonGenerator generator, LogEntryDTO entry, RawLogPolicy rawLogPolicy) throws IOException {
+        switch (rawLogPolicy) {
+            case ALWAYS -> writeString(generator, RAW_LOG, entry.getRawLog());
+            case ON_PARSE_FALLBACK -> {
+                if (entry.getMetadata() != null && entry.getMetadata().containsKey("parseFallback")) {
+                    writeString(generator, RAW_LOG, entry.getRawLog());
+                }
+            }
+            case STORED_NOT_INDEXED -> writeString(generator, RAW_LOG_STORED, entry.getRawLog());
+            case DROP -> { }
+        }
+    }
+
+    private void writeAction(JsonGenerator generator, String indexName, String id) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(id != null ? CREATE : INDEX);
+        generator.writeStartObject();
+        generator.writeFieldName(META_INDEX);
+        generator.writeString(indexName);
+        if (id != null) {
+            generator.writeFieldName(META_ID);
+            generator.writeString(id);
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeDocument(JsonGenerator generator, LogEntryDTO entry, RawLogPolicy rawLogPolicy) throws IOException {
+        generator.writeStartObject();
+        writeInstant(generator, TIMESTAMP, entry.getTimestamp());
+        writeString(generator, LEVEL, entry.getLevel());
+        writeString(generator, SERVICE_NAME, entry.getServiceName());
+        writeString(generator, MESSAGE, entry.getMessage());
+        writeString(generator, EXCEPTION, entry.getException());
+        writeRawLog(generator, entry, rawLogPolicy);
+        writeString(generator, HOST_NAME, entry.getHostName());
+        writeString(generator, HOST_IP, entry.getHostIp());
+        if (entry.getMetadata() != null && !entry.getMetadata().isEmpty()) {
+            generator.writeFieldName(METADATA);
+            generator.writeStartObject();
+            for (Map.Entry<String, Object> field : entry.getMetadata().entrySet()) {
+                generator.writeFieldName(field.getKey());
+                Object value = field.getValue();
+                if (value instanceof String text) generator.writeString(text);
+                else generator.writeObject(value);
+            }
+            generator.writeEndObject();
+        }
+        if (entry.getRepeatCount() != null) {
+            generator.writeFieldName(REPEAT_COUNT);
+            generator.writeNumber(entry.getRepeatCount());
+        }
+        writeInstant(generator, FIRST_SEEN, entry.getFirstSeen());
+        writeInstant(generator, LAST_SEEN, entry.getLastSeen());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        if (value == null) return;
+        generator.writeFieldName(name);
+        generator.writeString(value);
+    }
+
+    private void writeInstant(JsonGenerator generator, SerializedString name, Instant value) throws IOException {
+        if (value == null) return;
+        generator.writeFieldName(name);
+        generator.writeNumber(value.toEpochMilli());
+    }
+
+    /**
+     * Streams through the response: only the "items" array is materialized, one small record per item.
+     */
+    private BulkResult readResponse(Response response, int expectedItems) throws IOException {
+        List<BulkItemResult> items = new ArrayList<>(expectedItems);
+        try (InputStream in = response.getEntity().getContent();
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected _bulk response");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("items".equals(field)) {
+                    readItems(parser, items);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new BulkResult(items);
+    }
+
+    private void readItems(JsonParser parser, List<BulkItemResult> items) throws IOException {
+        // [{"create":{"_index":..,"_id":..,"status":201,"error":{..}}}, ...]
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            parser.nextToken(); // operation name
+            parser.nextToken(); // START_OBJECT of the operation result
+            String id = null;
+            int status = 0;
+            String errorType = null;
+            String errorReason = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "_id" -> id = parser.getText();
+                    case "status" -> status = parser.getIntValue();
+                    case "error" -> {
+                        JsonNode error = parser.readValueAsTree();
+                        errorType = error.path("type").asText(null);
+                        errorReason = error.path("reason").asText(null);
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            parser.nextToken(); // END_OBJECT of the item
+            items.add(new BulkItemResult(id, status, errorType, errorReason));
+        }
+    }
+
+    private BulkBuffer acquireBuffer() throws IOException {
+        BulkBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            ReusableByteArrayOutputStream out = new ReusableByteArrayOutputStream();
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            generator.setRootValueSeparator(null); // lines are separated explicitly with '\n'
+            buffer = new BulkBuffer(out, generator);
+        }
+        buffer.out.reset();
+        return buffer;
+    }
+
+    private void releaseBuffer(BulkBuffer buffer) {
+        if (buffer.out.capacity() <= MAX_RETAINED_BUFFER) {
+            buffers.offer(buffer);
+        }
+    }
+
+    public record BulkResult(List<BulkItemResult> items) {
+        public long succeeded() {
+            return items.stream().filter(item -> item.status() >= 200 && item.status() < 300).count();
+        }
+
+        public long conflicts() {
+            return items.stream().filter(BulkItemResult::isConflict).count();
+        }
+
+        public long failed() {
+            return items.stream().filter(BulkItemResult::isFailure).count();
+        }
+    }
+
+    public record BulkItemResult(String id, int status, String errorType, String errorReason) {
+        /**
+         * A create on an existing id: the document is already indexed.
+         */
+        public boolean isConflict() {
+            return status == 409;
+        }
+
+        public boolean isFailure() {
+            return status < 200 || (status >= 300 && status != 409);
+        }
+    }
+
+    private record BulkBuffer(ReusableByteArrayOutputStream out, JsonGenerator generator) {
+    }
+
+    /**
+     * Exposes the internal array so the body can be sent without copying it.
+     */
+    private static final class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+        ReusableByteArrayOutputStream() {
+            super(64 * 1024);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
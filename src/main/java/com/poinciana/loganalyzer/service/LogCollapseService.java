@@ -0,0 +1,158 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Collapses repeated messages (e.g. from crash-looping services) within a time window.
+ *
+ * The first occurrence of a (index, serviceName, level, normalized message) key is emitted immediately.
+ * Further occurrences inside the window are only counted, and when the window closes a single summary
+ * entry is emitted with repeatCount (suppressed occurrences), firstSeen and lastSeen, so
+ * first occurrence + repeatCount is the exact number of lines received.
+ *
+ * The number of open windows is bounded by max-keys; once full, new keys pass through uncollapsed.
+ */
+@Slf4j
+@Service
+public class LogCollapseService {
+
+    private static final int MAX_KEY_MESSAGE_LENGTH = 512;
+    private static final Pattern UUID = Pattern.compile("\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b");
+    private static final Pattern HEX = Pattern.compile("\\b0x[0-9a-fA-F]+\\b");
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+
+    @Value("${log.collapse.enabled:false}")
+    private boolean enabled;
+    @Value("${log.collapse.window-ms:10000}")
+    private long windowMs;
+    @Value("${log.collapse.max-keys:50000}")
+    private int maxKeys;
+
+    private final Map<CollapseKey, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param summarySink receives the summary entry when the window of this key closes
+     * @return true if the entry must be emitted now, false if it was absorbed into an open window
+     */
+    public boolean admit(LogEntryDTO logEntryDTO, Consumer<LogEntryDTO> summarySink) {
+        if (!enabled) return true;
+
+        CollapseKey key = new CollapseKey(
+                logEntryDTO.getIndexName(),
+                logEntryDTO.getServiceName(),
+                logEntryDTO.getLevel(),
+                normalize(logEntryDTO));
+
+        if (windows.size() >= maxKeys && !windows.containsKey(key)) {
+            return true; // table full: pass through rather than grow unbounded
+        }
+
+        boolean[] first = {false};
+        windows.compute(key, (k, window) -> {
+            if (window == null) {
+                first[0] = true;
+                return new Window(logEntryDTO, summarySink);
+            }
+            window.record(logEntryDTO);
+            return window;
+        });
+        return first[0];
+    }
+
+    @Scheduled(fixedDelayString = "${log.collapse.sweep-interval-ms:1000}")
+    public void closeExpiredWindows() {
+        if (windows.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        windows.forEach((key, window) -> {
+            if (now - window.openedAtMillis >= windowMs) {
+                close(key, window);
+            }
+        });
+    }
+
+    /**
+     * Closes every open window regardless of age, e.g. on shutdown.
+     */
+    public void closeAllWindows() {
+        windows.forEach(this::close);
+    }
+
+    private void close(CollapseKey key, Window window) {
+        // remove(key, value) serializes with compute() on the same key, so the count read below is final
+        if (!windows.remove(key, window) || window.repeatCount == 0) return;
+        try {
+            window.summarySink.accept(window.toSummary());
+        } catch (Exception e) {
+            log.error("Failed to emit collapse summary for service '{}' in index '{}'", key.serviceName(), key.indexName(), e);
+        }
+    }
+
+    private String normalize(LogEntryDTO logEntryDTO) {
+        String text = logEntryDTO.getMessage() != null ? logEntryDTO.getMessage()
+                : logEntryDTO.getException() != null ? logEntryDTO.getException()
+                : logEntryDTO.getRawLog();
+        if (text == null) return "";
+        if (text.length() > MAX_KEY_MESSAGE_LENGTH) text = text.substring(0, MAX_KEY_MESSAGE_LENGTH);
+        text = UUID.matcher(text).replaceAll("<uuid>");
+        text = HEX.matcher(text).replaceAll("<hex>");
+        return NUMBER.matcher(text).replaceAll("#");
+    }
+
+    private record CollapseKey(String indexName, String serviceName, String level, String message) {
+    }
+
+    private static final class Window {
+        private final LogEntryDTO firstOccurrence;
+        private final Consumer<LogEntryDTO> summarySink;
+        private final long openedAtMillis = System.currentTimeMillis();
+        private long repeatCount;
+        private Instant firstSeen;
+        private Instant lastSeen;
+
+        Window(LogEntryDTO firstOccurrence, Consumer<LogEntryDTO> summarySink) {
+            this.firstOccurrence = firstOccurrence;
+            this.summarySink = summarySink;
+            // the summary's range starts at the occurrence that opened the window, not the first suppressed one
+            this.firstSeen = firstOccurrence.getTimestamp();
+        }
+
+        // Only called inside ConcurrentHashMap.compute for this key
+        void record(LogEntryDTO logEntryDTO) {
+            Instant seen = logEntryDTO.getTimestamp() != null ? logEntryDTO.getTimestamp() : Instant.now();
+            if (firstSeen == null || seen.isBefore(firstSeen)) firstSeen = seen;
+            if (lastSeen == null || seen.isAfter(lastSeen)) lastSeen = seen;
+            repeatCount++;
+        }
+
+        LogEntryDTO toSummary() {
+            Map<String, Object> metadata = firstOccurrence.getMetadata() != null
+                    ? new HashMap<>(firstOccurrence.getMetadata()) : new HashMap<>();
+            metadata.put("collapsed", true);
+            return LogEntryDTO.builder()
+                    .level(firstOccurrence.getLevel())
+                    .serviceName(firstOccurrence.getServiceName())
+                    .message(firstOccurrence.getMessage())
+                    .exception(firstOccurrence.getException())
+                    .hostName(firstOccurrence.getHostName())
+                    .hostIp(firstOccurrence.getHostIp())
+                    .indexName(firstOccurrence.getIndexName())
+                    .timestamp(lastSeen)
+                    .metadata(metadata)
+                    .repeatCount(repeatCount)
+                    .firstSeen(firstSeen)
+                    .lastSeen(lastSeen)
+                    .build();
+        }
+    }
+}
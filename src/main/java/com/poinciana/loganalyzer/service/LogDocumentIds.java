@@ -0,0 +1,44 @@
+package com.poinciana.loganalyzer.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Deterministic document ids, so that re-ingesting the same entry (Kafka redelivery after a
+ * rebalance, or re-uploading a file) hits the same _id and is rejected as a create conflict
+ * instead of being indexed twice.
+ */
+public final class LogDocumentIds {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private LogDocumentIds() {
+    }
+
+    /**
+     * Id of an entry framed from Kafka records, derived from the record holding its first line.
+     */
+    public static String fromKafkaRecord(String topic, int partition, long offset) {
+        return topic + "-" + partition + "-" + offset;
+    }
+
+    /**
+     * Id of an entry without a stable source position (file ingest), derived from its raw text.
+     */
+    public static String fromContent(String rawLog) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] hash = digest.digest(rawLog.getBytes(StandardCharsets.UTF_8));
+        // 160 bits is plenty to make collisions between distinct lines irrelevant
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 20));
+    }
+}
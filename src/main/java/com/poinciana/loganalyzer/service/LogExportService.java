@@ -0,0 +1,277 @@
+package com.poinciana.loganalyzer.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.poinciana.loganalyzer.model.LogSearchRequestDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams every log matching a search to an output stream, as NDJSON or gzip-compressed CSV.
+ *
+ * One point-in-time is split into log.export.slices slices that are paged through in parallel with
+ * search_after on _shard_doc (no global sort, so entries come out in no particular order). Pages go through
+ * a small bounded queue to the thread writing the response, so memory stays the same whatever the size of the
+ * export, and a slow client slows the scan down instead of filling the heap.
+ */
+@Slf4j
+@Service
+public class LogExportService {
+
+    public enum Format { NDJSON, CSV_GZIP }
+
+    private static final List<String> DEFAULT_CSV_COLUMNS = List.of("timestamp", "level", "serviceName", "hostName", "message");
+    private static final List<String> TIMESTAMP_FIELDS = List.of("timestamp", "firstSeen", "lastSeen");
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final LogSearchService logSearchService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sliceReaders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "log-export-slice");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${log.export.slices:4}")
+    private int slices;
+    @Value("${log.export.page-size:1000}")
+    private int pageSize;
+    @Value("${log.search.pit-keep-alive:1m}")
+    private String pitKeepAlive;
+
+    public LogExportService(ElasticsearchClient elasticsearchClient, LogSearchService logSearchService,
+                            ObjectMapper objectMapper) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.logSearchService = logSearchService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes all matches of the request; its cursor and size are ignored. {@code out} is left open.
+     *
+     * @return number of entries written
+     * @throws IOException if writing to {@code out} fails, e.g. the client went away; the scan is stopped
+     */
+    public long export(LogSearchRequestDTO request, Format format, OutputStream out) throws IOException {
+        List<String> fields = request.getFields() == null ? List.of() : request.getFields();
+        String pitId = logSearchService.openPointInTime(logSearchService.readTargets(request));
+        Export export = new Export(pitId, logSearchService.buildQuery(request), fields, Math.max(1, slices));
+        try {
+            for (int slice = 0; slice < export.slices; slice++) {
+                int sliceId = slice;
+                sliceReaders.execute(() -> export.readSlice(sliceId));
+            }
+            return format == Format.NDJSON ? writeNdjson(export, out) : writeCsv(export, fields, out);
+        } finally {
+            export.cancelled = true;
+            export.writerGone = true;
+            logSearchService.closePointInTime(pitId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sliceReaders.shutdownNow();
+    }
+
+    private long writeNdjson(Export export, OutputStream out) throws IOException {
+        long written = 0;
+        List<ObjectNode> page;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        while ((page = export.nextPage()) != null) {
+            for (ObjectNode document : page) {
+                generator.writeTree(document);
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+            written += page.size();
+        }
+        generator.close();
+        return written;
+    }
+
+    private long writeCsv(Export export, List<String> fields, OutputStream out) throws IOException {
+        List<String> columns = fields.isEmpty() ? DEFAULT_CSV_COLUMNS : fields;
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 64 * 1024);
+        writeCsvRow(writer, columns);
+        long written = 0;
+        List<ObjectNode> page;
+        List<String> row = new ArrayList<>(columns.size());
+        while ((page = export.nextPage()) != null) {
+            for (ObjectNode document : page) {
+                row.clear();
+                for (String column : columns) {
+                    JsonNode value = field(document, column);
+                    row.add(value.isMissingNode() || value.isNull() ? ""
+                            : value.isValueNode() ? value.asText() : value.toString());
+                }
+                writeCsvRow(writer, row);
+            }
+            writer.flush();
+            written += page.size();
+        }
+        writer.flush();
+        gzip.finish();
+        return written;
+    }
+
+    /**
+     * Top-level field, or "metadata.&lt;key&gt;" where the key itself may contain dots.
+     */
+    private static JsonNode field(ObjectNode document, String column) {
+        if (document.has(column)) return document.get(column);
+        if (column.startsWith("metadata.")) {
+            JsonNode value = document.path("metadata").get(column.substring("metadata.".length()));
+            if (value != null) return value;
+        }
+        return document.at("/" + column.replace(".", "/"));
+    }
+
+    private static void writeCsvRow(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) writer.write(',');
+            String value = values.get(i);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * One running export: slice readers put pages into {@link #pages}, the writing thread takes them out.
+     */
+    private final class Export {
+        private static final List<ObjectNode> END = List.of();
+
+        private final String pitId;
+        private final Query query;
+        private final List<String> fields;
+        private final int slices;
+        private final BlockingQueue<List<ObjectNode>> pages;
+        // set to stop the slice readers (a slice failed or the export ended)
+        private volatile boolean cancelled;
+        private volatile boolean writerGone;
+        private volatile Exception failure;
+        private int finishedSlices;
+
+        private Export(String pitId, Query query, List<String> fields, int slices) {
+            this.pitId = pitId;
+            this.query = query;
+            this.fields = fields;
+            this.slices = slices;
+            this.pages = new ArrayBlockingQueue<>(slices * 2);
+        }
+
+        private void readSlice(int sliceId) {
+            try {
+                List<FieldValue> after = null;
+                while (!cancelled) {
+                    SearchRequest.Builder search = new SearchRequest.Builder()
+                            .pit(p -> p.id(pitId).keepAlive(k -> k.time(pitKeepAlive)))
+                            .query(query)
+                            .size(pageSize)
+                            .sort(s -> s.field(f -> f.field("_shard_doc").order(SortOrder.Asc)))
+                            .trackTotalHits(t -> t.enabled(false));
+                    if (slices > 1) search.slice(s -> s.id(String.valueOf(sliceId)).max(slices));
+                    if (after != null) search.searchAfter(after);
+                    if (!fields.isEmpty()) search.source(s -> s.filter(f -> f.includes(fields)));
+
+                    SearchResponse<ObjectNode> response = elasticsearchClient.search(search.build(), ObjectNode.class);
+                    List<Hit<ObjectNode>> hits = response.hits().hits();
+                    if (hits.isEmpty()) break;
+                    List<ObjectNode> page = new ArrayList<>(hits.size());
+                    for (Hit<ObjectNode> hit : hits) {
+                        page.add(document(hit));
+                    }
+                    if (!offer(page) || hits.size() < pageSize) break;
+                    after = hits.get(hits.size() - 1).sort();
+                }
+            } catch (Exception e) {
+                failure = e;
+                cancelled = true;
+            }
+            offer(END);
+        }
+
+        private ObjectNode document(Hit<ObjectNode> hit) {
+            ObjectNode document = objectMapper.createObjectNode().put("id", hit.id());
+            if (hit.source() != null) {
+                document.setAll(hit.source());
+                // stored as epoch millis, exported readable
+                for (String field : TIMESTAMP_FIELDS) {
+                    JsonNode value = document.get(field);
+                    if (value != null && value.isNumber()) {
+                        document.put(field, Instant.ofEpochMilli(value.asLong()).toString());
+                    }
+                }
+            }
+            return document;
+        }
+
+        private boolean offer(List<ObjectNode> page) {
+            try {
+                // the end marker must arrive as long as the writer waits for it, even after a cancel
+                while (page == END ? !writerGone : !cancelled) {
+                    if (pages.offer(page, 100, TimeUnit.MILLISECONDS)) return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        /**
+         * @return the next page, or null once every slice is done
+         * @throws IOException if a slice failed
+         */
+        private List<ObjectNode> nextPage() throws IOException {
+            while (finishedSlices < slices) {
+                List<ObjectNode> page;
+                try {
+                    page = pages.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while exporting logs", e);
+                }
+                if (page != END) return page;
+                finishedSlices++;
+                if (failure != null) throw new IOException("Log export failed", failure);
+            }
+            return null;
+        }
+    }
+}
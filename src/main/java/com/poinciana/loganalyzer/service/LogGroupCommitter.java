@@ -0,0 +1,150 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group commit for request/response ingestion: entries submitted by concurrent callers for the same index are
+ * coalesced into one batch, which is dispatched to the sinks when it reaches log.ingest.http.max-batch-entries
+ * or when its first entry has waited log.ingest.http.linger-ms. Each caller's future completes once the
+ * batch holding its entries is written by the required sinks.
+ *
+ * Entries accepted but not yet written are capped at log.ingest.http.max-pending-entries; beyond that,
+ * submissions are rejected so callers can be told to back off. Submitting never blocks, so it is safe from
+ * event loops such as the syslog listener's: batches are dispatched on a flush thread of their own.
+ */
+@Slf4j
+@Service
+public class LogGroupCommitter {
+
+    private final LogSinkDispatcher logSinkDispatcher;
+    private final ScheduledExecutorService lingerTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-group-commit");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // dispatch can block on a full required sink, so it never runs on the timer or a submitting thread
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-group-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, PendingBatch> pending = new HashMap<>();
+    private final AtomicLong outstandingEntries = new AtomicLong();
+
+    @Value("${log.ingest.http.linger-ms:20}")
+    private long lingerMs;
+    @Value("${log.ingest.http.max-batch-entries:5000}")
+    private int maxBatchEntries;
+    @Value("${log.ingest.http.max-pending-entries:200000}")
+    private long maxPendingEntries;
+
+    public LogGroupCommitter(LogSinkDispatcher logSinkDispatcher) {
+        this.logSinkDispatcher = logSinkDispatcher;
+    }
+
+    public boolean isSaturated() {
+        return outstandingEntries.get() >= maxPendingEntries;
+    }
+
+    /**
+     * @return completes when the entries are written, exceptionally if a required sink failed
+     * @throws RejectedExecutionException if too many entries are already waiting to be written
+     */
+    public CompletableFuture<Void> submit(String indexName, List<LogEntryDTO> entries) {
+        if (entries.isEmpty()) return CompletableFuture.completedFuture(null);
+        if (outstandingEntries.addAndGet(entries.size()) > maxPendingEntries) {
+            outstandingEntries.addAndGet(-entries.size());
+            throw new RejectedExecutionException("Ingest pipeline saturated");
+        }
+
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        PendingBatch full = null;
+        synchronized (pending) {
+            PendingBatch batch = pending.get(indexName);
+            if (batch == null) {
+                PendingBatch created = new PendingBatch(indexName);
+                pending.put(indexName, created);
+                lingerTimer.schedule(() -> flusher.execute(() -> flushIfPending(created)),
+                        lingerMs, TimeUnit.MILLISECONDS);
+                batch = created;
+            }
+            batch.entries.addAll(entries);
+            batch.waiters.add(written);
+            if (batch.entries.size() >= maxBatchEntries) {
+                pending.remove(indexName);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            PendingBatch batch = full;
+            try {
+                flusher.execute(() -> flush(batch));
+            } catch (RejectedExecutionException e) {
+                flush(batch); // shutting down
+            }
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<PendingBatch> remaining;
+        synchronized (pending) {
+            remaining = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        lingerTimer.shutdownNow();
+        flusher.shutdown();
+        remaining.forEach(this::flush);
+    }
+
+    private void flushIfPending(PendingBatch batch) {
+        synchronized (pending) {
+            if (!pending.remove(batch.indexName, batch)) return; // already flushed for size
+        }
+        flush(batch);
+    }
+
+    private void flush(PendingBatch batch) {
+        int size = batch.entries.size();
+        CompletableFuture<Void> dispatched;
+        try {
+            dispatched = logSinkDispatcher.dispatch(batch.indexName, batch.entries);
+        } catch (RuntimeException e) {
+            dispatched = CompletableFuture.failedFuture(e);
+        }
+        dispatched.whenComplete((ignored, failure) -> {
+            outstandingEntries.addAndGet(-size);
+            for (CompletableFuture<Void> waiter : batch.waiters) {
+                if (failure == null) waiter.complete(null);
+                else waiter.completeExceptionally(failure);
+            }
+        });
+    }
+
+    private static final class PendingBatch {
+        private final String indexName;
+        private final List<LogEntryDTO> entries = new ArrayList<>();
+        private final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+
+        private PendingBatch(String indexName) {
+            this.indexName = indexName;
+        }
+    }
+}
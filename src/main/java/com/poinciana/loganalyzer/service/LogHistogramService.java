@@ -0,0 +1,358 @@
+package com.poinciana.loganalyzer.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldDateMath;
+import co.elastic.clients.elasticsearch._types.aggregations.DateHistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.JsonData;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.model.LogHistogramBucketDTO;
+import com.poinciana.loganalyzer.model.LogHistogramDTO;
+import com.poinciana.loganalyzer.model.LogSearchRequestDTO;
+import com.poinciana.loganalyzer.service.interfaces.LogEntryListener;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Log counts per fixed time bucket (date_histogram), optionally split by level, serviceName or hostName.
+ *
+ * Buckets that ended more than log.histogram.settle-ms ago no longer change, except through late data, so
+ * they are cached per (indices, filters, interval, groupBy) in an LRU of log.histogram.cache.max-entries;
+ * a repeated dashboard query only asks Elasticsearch for the still-open tail. Every dispatched batch is seen
+ * as a {@link LogEntryListener}: an entry older than the cached range's end truncates the cached range of its
+ * index back to that entry's bucket, right away and once more after log.histogram.invalidation-delay-ms,
+ * by which time the entry is searchable. Delayed invalidations are coalesced per index: one pending task
+ * truncates back to the earliest late entry seen, and runs again only if more late data arrived meanwhile.
+ */
+@Slf4j
+@Service
+public class LogHistogramService implements LogEntryListener {
+
+    private static final Pattern INTERVAL = Pattern.compile("^(\\d+)([smhd])$");
+    private static final Set<String> GROUP_FIELDS = Set.of("level", "serviceName", "hostName");
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final LogSearchService logSearchService;
+    private final Map<CacheKey, CachedRange> cache;
+    // Bumped per base index by late entries, so a query running meanwhile does not cache what it read before them
+    private final Map<String, AtomicLong> lateDataVersions = new ConcurrentHashMap<>();
+    // Pending delayed invalidation per base index, guarded by itself
+    private final Map<String, LateData> lateData = new HashMap<>();
+    private final ScheduledExecutorService invalidationTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-histogram-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${log.histogram.settle-ms:120000}")
+    private long settleMs;
+    @Value("${log.histogram.invalidation-delay-ms:60000}")
+    private long invalidationDelayMs;
+    @Value("${log.histogram.max-buckets:10000}")
+    private int maxBuckets;
+    @Value("${log.histogram.max-groups:20}")
+    private int maxGroups;
+
+    public LogHistogramService(ElasticsearchClient elasticsearchClient, LogSearchService logSearchService,
+                               @Value("${log.histogram.cache.max-entries:256}") int maxEntries) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.logSearchService = logSearchService;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedRange> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Buckets covering the request's time range (default: the last 24 hours), widened to whole intervals.
+     * The request's cursor, fields and size are ignored.
+     *
+     * @param interval bucket width such as "30s", "1m", "1h" or "1d"
+     * @param groupBy  level, serviceName, hostName, or null for totals only
+     * @throws IllegalArgumentException if the interval or groupBy is invalid, or the range has too many buckets
+     */
+    public LogHistogramDTO histogram(LogSearchRequestDTO request, String interval, String groupBy) {
+        long intervalMs = parseInterval(interval);
+        if (groupBy != null && !GROUP_FIELDS.contains(groupBy)) {
+            throw new IllegalArgumentException("groupBy must be one of " + GROUP_FIELDS);
+        }
+        Instant to = request.getTo() != null ? request.getTo() : Instant.now();
+        Instant from = request.getFrom() != null ? request.getFrom() : to.minus(Duration.ofDays(1));
+        long alignedFrom = Math.floorDiv(from.toEpochMilli(), intervalMs) * intervalMs;
+        long alignedTo = Math.floorDiv(to.toEpochMilli(), intervalMs) * intervalMs + intervalMs;
+        if ((alignedTo - alignedFrom) / intervalMs > maxBuckets) {
+            throw new IllegalArgumentException("Range has more than " + maxBuckets + " buckets of " + interval);
+        }
+
+        // The time range is not part of the key: any range with the same filters shares the cached buckets
+        LogSearchRequestDTO filters = LogSearchRequestDTO.builder()
+                .indices(request.getIndices())
+                .topics(request.getTopics())
+                .levels(request.getLevels())
+                .serviceNames(request.getServiceNames())
+                .hostNames(request.getHostNames())
+                .query(request.getQuery())
+                .metadata(request.getMetadata())
+                .build();
+        List<String> bases = logSearchService.resolveBases(filters);
+        Query query = logSearchService.buildQuery(filters);
+        CacheKey key = new CacheKey(Set.copyOf(bases), query.toString(), intervalMs, groupBy);
+        long version = lateDataVersion(bases);
+
+        TreeMap<Long, LogHistogramBucketDTO> buckets = new TreeMap<>();
+        List<long[]> missing = new ArrayList<>();
+        CachedRange cached = cache.get(key);
+        if (cached == null) {
+            missing.add(new long[]{alignedFrom, alignedTo});
+        } else {
+            cached.read(alignedFrom, alignedTo, buckets, missing);
+        }
+        int cachedBuckets = buckets.size();
+
+        List<String> targets = logSearchService.readTargets(filters);
+        for (long[] range : missing) {
+            fetch(targets, query, range[0], range[1], interval, groupBy, buckets);
+        }
+
+        long closedUntil = Math.floorDiv(System.currentTimeMillis() - settleMs, intervalMs) * intervalMs;
+        long storeTo = Math.min(alignedTo, closedUntil);
+        if (storeTo > alignedFrom && !missing.isEmpty()) {
+            synchronized (cache) {
+                if (lateDataVersion(bases) == version) {
+                    cache.computeIfAbsent(key, k -> new CachedRange(Set.copyOf(bases), intervalMs))
+                            .store(alignedFrom, storeTo, buckets);
+                }
+            }
+        }
+
+        return LogHistogramDTO.builder()
+                .interval(interval)
+                .groupBy(groupBy)
+                .from(Instant.ofEpochMilli(alignedFrom))
+                .to(Instant.ofEpochMilli(alignedTo))
+                .buckets(new ArrayList<>(buckets.values()))
+                .cachedBuckets(cachedBuckets)
+                .build();
+    }
+
+    @Override
+    public void onEntries(String indexName, List<LogEntryDTO> entries) {
+        long oldest = Long.MAX_VALUE;
+        for (LogEntryDTO entry : entries) {
+            if (entry.getTimestamp() != null) oldest = Math.min(oldest, entry.getTimestamp().toEpochMilli());
+        }
+        // Only entries older than the settle window can fall into a cached (closed) bucket
+        long now = System.currentTimeMillis();
+        if (oldest >= now - settleMs) return;
+        invalidate(indexName, oldest);
+        synchronized (lateData) {
+            LateData pending = lateData.get(indexName);
+            if (pending != null) {
+                pending.from = Math.min(pending.from, oldest);
+                pending.lastArrival = now;
+                return;
+            }
+            lateData.put(indexName, new LateData(oldest, now));
+        }
+        invalidationTimer.schedule(() -> invalidateLate(indexName), invalidationDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        invalidationTimer.shutdownNow();
+    }
+
+    /**
+     * Delayed invalidation of an index; reschedules itself while late entries arrived less than
+     * log.histogram.invalidation-delay-ms ago, so the last of them is searchable when it finally runs.
+     */
+    private void invalidateLate(String baseIndex) {
+        long from;
+        long wait;
+        synchronized (lateData) {
+            LateData pending = lateData.get(baseIndex);
+            if (pending == null) return;
+            from = pending.from;
+            wait = pending.lastArrival + invalidationDelayMs - System.currentTimeMillis();
+            if (wait <= 0) lateData.remove(baseIndex);
+        }
+        invalidate(baseIndex, from);
+        if (wait > 0) invalidationTimer.schedule(() -> invalidateLate(baseIndex), wait, TimeUnit.MILLISECONDS);
+    }
+
+    private void invalidate(String baseIndex, long timestamp) {
+        synchronized (cache) {
+            lateDataVersions.computeIfAbsent(baseIndex, k -> new AtomicLong()).incrementAndGet();
+            cache.values().removeIf(range -> range.bases.contains(baseIndex) && range.truncate(timestamp));
+        }
+    }
+
+    private long lateDataVersion(List<String> bases) {
+        long version = 0;
+        for (String base : bases) {
+            AtomicLong baseVersion = lateDataVersions.get(base);
+            if (baseVersion != null) version += baseVersion.get();
+        }
+        return version;
+    }
+
+    private void fetch(List<String> targets, Query filters, long from, long to, String interval, String groupBy,
+                       Map<Long, LogHistogramBucketDTO> buckets) {
+        try {
+            SearchResponse<Void> response = elasticsearchClient.search(s -> s
+                    .index(targets)
+                    .ignoreUnavailable(true)
+                    .size(0)
+                    .trackTotalHits(t -> t.enabled(false))
+                    .query(q -> q.bool(b -> b
+                            .filter(filters)
+                            .filter(f -> f.range(r -> r.untyped(u -> u
+                                    .field("timestamp")
+                                    .gte(JsonData.of(from))
+                                    .lt(JsonData.of(to)))))))
+                    .aggregations("histogram", a -> {
+                        a.dateHistogram(h -> h
+                                .field("timestamp")
+                                .fixedInterval(t -> t.time(interval))
+                                .minDocCount(0)
+                                // empty buckets are returned (and cached) too
+                                .extendedBounds(e -> e
+                                        .min(FieldDateMath.of(m -> m.value((double) from)))
+                                        .max(FieldDateMath.of(m -> m.value((double) (to - 1))))));
+                        if (groupBy != null) {
+                            a.aggregations("groups", g -> g.terms(t -> t.field(groupBy).size(maxGroups)));
+                        }
+                        return a;
+                    }), Void.class);
+
+            for (DateHistogramBucket bucket : response.aggregations().get("histogram").dateHistogram().buckets().array()) {
+                if (bucket.key() < from || bucket.key() >= to) continue;
+                Map<String, Long> groups = null;
+                if (groupBy != null) {
+                    groups = new LinkedHashMap<>();
+                    for (StringTermsBucket group : bucket.aggregations().get("groups").sterms().buckets().array()) {
+                        groups.put(group.key().stringValue(), group.docCount());
+                    }
+                }
+                buckets.put(bucket.key(), LogHistogramBucketDTO.builder()
+                        .start(Instant.ofEpochMilli(bucket.key()))
+                        .count(bucket.docCount())
+                        .groups(groups)
+                        .build());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Log histogram query failed", e);
+        }
+    }
+
+    private static long parseInterval(String interval) {
+        Matcher matcher = INTERVAL.matcher(interval == null ? "" : interval);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Interval must look like 30s, 5m, 1h or 1d: " + interval);
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        long millis = switch (matcher.group(2)) {
+            case "s" -> TimeUnit.SECONDS.toMillis(amount);
+            case "m" -> TimeUnit.MINUTES.toMillis(amount);
+            case "h" -> TimeUnit.HOURS.toMillis(amount);
+            default -> TimeUnit.DAYS.toMillis(amount);
+        };
+        if (millis < 1000) throw new IllegalArgumentException("Interval must be at least 1s");
+        return millis;
+    }
+
+    private static final class LateData {
+        private long from;
+        private long lastArrival;
+
+        private LateData(long from, long lastArrival) {
+            this.from = from;
+            this.lastArrival = lastArrival;
+        }
+    }
+
+    private record CacheKey(Set<String> bases, String query, long intervalMs, String groupBy) {
+    }
+
+    /**
+     * Closed buckets of one key over the contiguous range [from, to).
+     */
+    private static final class CachedRange {
+        private final Set<String> bases;
+        private final long intervalMs;
+        private final TreeMap<Long, LogHistogramBucketDTO> buckets = new TreeMap<>();
+        private long from;
+        private long to;
+
+        private CachedRange(Set<String> bases, long intervalMs) {
+            this.bases = bases;
+            this.intervalMs = intervalMs;
+        }
+
+        /**
+         * Copies cached buckets within [requestFrom, requestTo) and adds the parts not cached to {@code missing}.
+         */
+        private synchronized void read(long requestFrom, long requestTo, Map<Long, LogHistogramBucketDTO> into,
+                                       List<long[]> missing) {
+            if (to <= requestFrom || from >= requestTo) {
+                missing.add(new long[]{requestFrom, requestTo});
+                return;
+            }
+            into.putAll(buckets.subMap(Math.max(from, requestFrom), Math.min(to, requestTo)));
+            if (requestFrom < from) missing.add(new long[]{requestFrom, from});
+            if (to < requestTo) missing.add(new long[]{to, requestTo});
+        }
+
+        /**
+         * Caches the buckets of [storeFrom, storeTo), extending the range when it touches the cached one.
+         */
+        private synchronized void store(long storeFrom, long storeTo, TreeMap<Long, LogHistogramBucketDTO> fetched) {
+            if (to <= from || storeFrom > to || storeTo < from) {
+                buckets.clear();
+                from = storeFrom;
+                to = storeTo;
+            } else {
+                from = Math.min(from, storeFrom);
+                to = Math.max(to, storeTo);
+            }
+            buckets.putAll(fetched.subMap(storeFrom, storeTo));
+        }
+
+        /**
+         * Drops the bucket holding {@code timestamp} and every later one.
+         *
+         * @return true if nothing is left
+         */
+        private synchronized boolean truncate(long timestamp) {
+            if (timestamp >= to) return false;
+            to = Math.max(from, Math.floorDiv(timestamp, intervalMs) * intervalMs);
+            buckets.tailMap(to, true).clear();
+            return to <= from;
+        }
+    }
+}
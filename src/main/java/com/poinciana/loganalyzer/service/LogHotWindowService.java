@@ -0,0 +1,505 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.model.LogSearchRequestDTO;
+import com.poinciana.loganalyzer.service.interfaces.LogEntryListener;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Optional in-memory copy of the most recent log.hot-window.duration-ms of logs per index, so searches over the
+ * last minutes are answered without Elasticsearch.
+ *
+ * Every dispatched batch is kept as a {@link LogEntryListener} (without its raw text), with an inverted index
+ * from level, serviceName, hostName and the first lower-cased message/exception words to positions in arrival
+ * order; query text is matched word by word against it, query syntax sends the search to Elasticsearch. Entries
+ * with more than log.hot-window.max-words-per-entry words are also listed as truncated, and their text is
+ * scanned for the query words that are not indexed for them, so long entries still match. Entries
+ * are evicted oldest-arrival first once older than the window or while all indices together exceed
+ * log.hot-window.max-bytes (an estimate). Each index tracks the timestamp from which it holds every entry;
+ * {@link LogSearchService} answers the part of a search from there on from memory and the older part from
+ * Elasticsearch.
+ *
+ * Only this instance's ingestion is seen, so it is correct only when a single instance ingests and serves
+ * searches; it is off by default (log.hot-window.enabled).
+ */
+@Service
+public class LogHotWindowService implements LogEntryListener {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // simple_query_string syntax that the word index cannot evaluate; such searches go to Elasticsearch
+    private static final Pattern QUERY_OPERATORS = Pattern.compile("[+|\"*()~\\\\]|(^|\\s)-");
+    // lists entries with more words than were indexed
+    private static final String TRUNCATED = "t:";
+    private static final Comparator<Slot> NEWEST_LAST = Comparator.comparingLong(Slot::timestamp).thenComparingLong(Slot::seq);
+
+    private final Map<String, HotIndex> indices = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    // orders entries of the same millisecond, across indices
+    private final AtomicLong sequence = new AtomicLong();
+    private final long startedAt = System.currentTimeMillis();
+    private final ScheduledExecutorService evictionTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-hot-window-eviction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${log.hot-window.enabled:false}")
+    private boolean enabled;
+    @Value("${log.hot-window.duration-ms:900000}")
+    private long durationMs;
+    @Value("${log.hot-window.max-bytes:268435456}")
+    private long maxBytes;
+    @Value("${log.hot-window.max-words-per-entry:64}")
+    private int maxWordsPerEntry;
+
+    public LogHotWindowService() {
+        // time-based eviction also runs while nothing is ingested
+        evictionTimer.scheduleWithFixedDelay(this::evict, 5, 5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void onEntries(String indexName, List<LogEntryDTO> entries) {
+        if (!enabled) return;
+        HotIndex index = indices.computeIfAbsent(indexName, name -> new HotIndex(startedAt));
+        totalBytes.addAndGet(index.add(entries));
+        if (totalBytes.get() > maxBytes) evict();
+    }
+
+    /**
+     * Timestamp (epoch millis) from which the window holds every entry of all the given indices that matches
+     * the request, or null if the window is disabled or cannot evaluate the request's filters.
+     */
+    public Long coveredFrom(List<String> bases, LogSearchRequestDTO request) {
+        if (!enabled) return null;
+        if (request.getQuery() != null && QUERY_OPERATORS.matcher(request.getQuery()).find()) return null;
+        long coveredFrom = startedAt;
+        for (String base : bases) {
+            HotIndex index = indices.get(base);
+            if (index != null) coveredFrom = Math.max(coveredFrom, index.coveredFrom());
+        }
+        return coveredFrom;
+    }
+
+    /**
+     * Newest-first matches of the request at or after {@code windowFrom} and strictly before {@code after}
+     * (timestamp, sequence number of the last entry of the previous page), if given.
+     */
+    public Page search(List<String> bases, LogSearchRequestDTO request, long windowFrom, List<Long> after, int size) {
+        Matcher matcher = new Matcher(request, windowFrom, after, words(request.getQuery(), Integer.MAX_VALUE));
+        PriorityQueue<Slot> newest = new PriorityQueue<>(size + 1, NEWEST_LAST);
+        long matches = 0;
+        for (String base : bases) {
+            HotIndex index = indices.get(base);
+            if (index != null) matches += index.search(matcher, newest, size);
+        }
+        List<Slot> page = new ArrayList<>(newest);
+        page.sort(NEWEST_LAST.reversed());
+        List<LogEntryDTO> entries = page.stream().map(Slot::entry).toList();
+        List<Long> last = page.isEmpty() ? null : List.of(page.get(page.size() - 1).timestamp(), page.get(page.size() - 1).seq());
+        return new Page(entries, last, matches);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictionTimer.shutdownNow();
+    }
+
+    /**
+     * Drops entries older than the window, then the oldest arrivals across all indices while over the budget.
+     */
+    private synchronized void evict() {
+        long cutoff = System.currentTimeMillis() - durationMs;
+        for (HotIndex index : indices.values()) {
+            totalBytes.addAndGet(-index.evict(cutoff, 0));
+        }
+        while (totalBytes.get() > maxBytes) {
+            HotIndex oldest = null;
+            long oldestArrival = Long.MAX_VALUE;
+            for (HotIndex index : indices.values()) {
+                long arrival = index.headArrival();
+                if (arrival < oldestArrival) {
+                    oldest = index;
+                    oldestArrival = arrival;
+                }
+            }
+            if (oldest == null) break;
+            // a chunk at a time, so the budget check is not repeated per entry
+            long freed = oldest.evict(Long.MIN_VALUE, Math.max(1, (totalBytes.get() - maxBytes) + maxBytes / 100));
+            if (freed == 0) break;
+            totalBytes.addAndGet(-freed);
+        }
+    }
+
+    private static List<String> words(String text, int limit) {
+        if (text == null || text.isBlank()) return List.of();
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty()) continue;
+            words.add(word);
+            if (words.size() >= limit) break;
+        }
+        return List.copyOf(words);
+    }
+
+    private static String text(LogEntryDTO entry) {
+        if (entry.getException() == null) return entry.getMessage() == null ? "" : entry.getMessage();
+        return entry.getMessage() == null ? entry.getException() : entry.getMessage() + " " + entry.getException();
+    }
+
+    /**
+     * Whether {@code word} is one of the words {@link #words} splits the lower-cased {@code text} into.
+     */
+    private static boolean containsWord(String text, String word) {
+        for (int at = text.indexOf(word); at >= 0; at = text.indexOf(word, at + 1)) {
+            int end = at + word.length();
+            if ((at == 0 || !isWordChar(text.codePointBefore(at)))
+                    && (end == text.length() || !isWordChar(text.codePointAt(end)))) return true;
+        }
+        return false;
+    }
+
+    private static boolean isWordChar(int codePoint) {
+        return Character.isLetter(codePoint) || switch (Character.getType(codePoint)) {
+            case Character.DECIMAL_DIGIT_NUMBER, Character.LETTER_NUMBER, Character.OTHER_NUMBER -> true;
+            default -> false;
+        };
+    }
+
+    private static String upper(String value) {
+        return value == null ? null : value.toUpperCase(Locale.ROOT);
+    }
+
+    public record Page(List<LogEntryDTO> entries, List<Long> last, long matches) {
+    }
+
+    private record Slot(long seq, long timestamp, long arrival, LogEntryDTO entry, long bytes) {
+    }
+
+    /**
+     * The request's filters: indexed terms narrow the candidates, the rest is checked per entry.
+     */
+    private static final class Matcher {
+        private final Set<String> levels;
+        private final Set<String> services;
+        private final Set<String> hosts;
+        private final List<String> words;
+        private final Map<String, String> metadata;
+        private final long from;
+        private final long to;
+        private final List<Long> after;
+
+        private Matcher(LogSearchRequestDTO request, long windowFrom, List<Long> after, List<String> words) {
+            this.levels = request.getLevels() == null || request.getLevels().isEmpty() ? null
+                    : Set.copyOf(request.getLevels().stream().map(LogHotWindowService::upper).toList());
+            this.services = request.getServiceNames() == null || request.getServiceNames().isEmpty() ? null
+                    : Set.copyOf(request.getServiceNames());
+            this.hosts = request.getHostNames() == null || request.getHostNames().isEmpty() ? null
+                    : Set.copyOf(request.getHostNames());
+            this.words = words;
+            this.metadata = request.getMetadata();
+            this.from = Math.max(windowFrom, request.getFrom() != null ? request.getFrom().toEpochMilli() : Long.MIN_VALUE);
+            this.to = request.getTo() != null ? request.getTo().toEpochMilli() : Long.MAX_VALUE;
+            this.after = after;
+        }
+
+        private boolean matches(Slot slot, long position, HotIndex index) {
+            if (slot.timestamp() < from || slot.timestamp() > to) return false;
+            if (after != null && (slot.timestamp() > after.get(0)
+                    || (slot.timestamp() == after.get(0) && slot.seq() >= after.get(1)))) return false;
+            LogEntryDTO entry = slot.entry();
+            // immutable sets throw on contains(null)
+            if (levels != null && (entry.getLevel() == null || !levels.contains(upper(entry.getLevel())))) return false;
+            if (services != null && (entry.getServiceName() == null || !services.contains(entry.getServiceName()))) return false;
+            if (hosts != null && (entry.getHostName() == null || !hosts.contains(entry.getHostName()))) return false;
+            String text = null;
+            for (String word : words) {
+                if (index.contains("w:" + word, position)) continue;
+                if (!index.contains(TRUNCATED, position)) return false;
+                if (text == null) text = text(entry).toLowerCase(Locale.ROOT);
+                if (!containsWord(text, word)) return false;
+            }
+            if (metadata != null) {
+                for (Map.Entry<String, String> filter : metadata.entrySet()) {
+                    Object value = entry.getMetadata() != null ? entry.getMetadata().get(filter.getKey()) : null;
+                    if (value == null || !Objects.equals(String.valueOf(value), filter.getValue())) return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Terms of each indexed filter; an entry has to match one term of every group.
+         */
+        private List<List<String>> termGroups() {
+            List<List<String>> groups = new ArrayList<>();
+            if (levels != null) groups.add(levels.stream().map(level -> "l:" + level).toList());
+            if (services != null) groups.add(services.stream().map(service -> "s:" + service).toList());
+            if (hosts != null) groups.add(hosts.stream().map(host -> "h:" + host).toList());
+            // a word past the indexed ones can only be found in the text of truncated entries
+            words.forEach(word -> groups.add(List.of("w:" + word, TRUNCATED)));
+            return groups;
+        }
+    }
+
+    /**
+     * Ascending positions of the live entries of an index holding one term.
+     */
+    private static final class Postings {
+        private long[] positions = new long[4];
+        private int start;
+        private int end;
+
+        private void add(long position) {
+            if (end == positions.length) {
+                if (start > positions.length / 2) {
+                    System.arraycopy(positions, start, positions, 0, end - start);
+                    end -= start;
+                    start = 0;
+                } else {
+                    positions = Arrays.copyOf(positions, positions.length * 2);
+                }
+            }
+            positions[end++] = position;
+        }
+
+        private int size() {
+            return end - start;
+        }
+
+        private boolean contains(long position) {
+            return Arrays.binarySearch(positions, start, end, position) >= 0;
+        }
+    }
+
+    /**
+     * Live entries of one index in arrival order, with their inverted index.
+     */
+    private final class HotIndex {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final ArrayList<Slot> slots = new ArrayList<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        // slots before head are evicted (null); slots.get(i) is at position basePosition + i
+        private int head;
+        private long basePosition;
+        private long coveredFrom;
+
+        private HotIndex(long coveredFrom) {
+            this.coveredFrom = coveredFrom;
+        }
+
+        /**
+         * @return estimated bytes added
+         */
+        private long add(List<LogEntryDTO> entries) {
+            long now = System.currentTimeMillis();
+            long added = 0;
+            lock.writeLock().lock();
+            try {
+                for (LogEntryDTO entry : entries) {
+                    long position = basePosition + slots.size();
+                    LogEntryDTO copy = copy(entry);
+                    List<String> terms = terms(copy);
+                    for (String term : terms) {
+                        postings.computeIfAbsent(term, t -> new Postings()).add(position);
+                    }
+                    long timestamp = copy.getTimestamp() != null ? copy.getTimestamp().toEpochMilli() : now;
+                    long bytes = estimateBytes(copy, terms.size());
+                    slots.add(new Slot(sequence.getAndIncrement(), timestamp, now, copy, bytes));
+                    added += bytes;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return added;
+        }
+
+        /**
+         * Evicts from the oldest arrival while its entry is older than {@code cutoff} or less than {@code bytes}
+         * are freed.
+         *
+         * @return estimated bytes freed
+         */
+        private long evict(long cutoff, long bytes) {
+            long freed = 0;
+            lock.writeLock().lock();
+            try {
+                while (head < slots.size()) {
+                    Slot slot = slots.get(head);
+                    if (slot.timestamp() >= cutoff && freed >= bytes) break;
+                    for (String term : terms(slot.entry())) {
+                        Postings list = postings.get(term);
+                        if (list == null) continue;
+                        // the evicted entry is the oldest live one, so it is first in each of its lists
+                        list.start++;
+                        if (list.size() == 0) postings.remove(term);
+                    }
+                    slots.set(head++, null);
+                    // everything from here on is still held
+                    coveredFrom = Math.max(coveredFrom, slot.timestamp() + 1);
+                    freed += slot.bytes();
+                }
+                if (head > 4096 && head > slots.size() / 2) {
+                    slots.subList(0, head).clear();
+                    basePosition += head;
+                    head = 0;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return freed;
+        }
+
+        private long headArrival() {
+            lock.readLock().lock();
+            try {
+                return head < slots.size() ? slots.get(head).arrival() : Long.MAX_VALUE;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private long coveredFrom() {
+            lock.readLock().lock();
+            try {
+                return coveredFrom;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private boolean contains(String term, long position) {
+            Postings list = postings.get(term);
+            return list != null && list.contains(position);
+        }
+
+        /**
+         * Adds matches to {@code newest}, keeping only the {@code size} newest.
+         *
+         * @return number of matches
+         */
+        private long search(Matcher matcher, PriorityQueue<Slot> newest, int size) {
+            lock.readLock().lock();
+            try {
+                // candidates come from the rarest filter group; the others are checked per entry
+                List<Postings> candidates = null;
+                int candidateCount = Integer.MAX_VALUE;
+                for (List<String> group : matcher.termGroups()) {
+                    List<Postings> lists = new ArrayList<>();
+                    int count = 0;
+                    for (String term : group) {
+                        Postings list = postings.get(term);
+                        if (list != null) {
+                            lists.add(list);
+                            count += list.size();
+                        }
+                    }
+                    if (count < candidateCount) {
+                        candidates = lists;
+                        candidateCount = count;
+                    }
+                }
+
+                long matches = 0;
+                if (candidates == null) {
+                    for (int i = head; i < slots.size(); i++) {
+                        matches += offer(slots.get(i), basePosition + i, matcher, newest, size);
+                    }
+                } else {
+                    for (int l = 0; l < candidates.size(); l++) {
+                        Postings list = candidates.get(l);
+                        for (int i = list.start; i < list.end; i++) {
+                            long position = list.positions[i];
+                            if (listedBefore(candidates, l, position)) continue;
+                            matches += offer(slots.get((int) (position - basePosition)), position, matcher, newest, size);
+                        }
+                    }
+                }
+                return matches;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * An entry can hold several terms of one group (a word and truncated); it is offered for the first only.
+         */
+        private boolean listedBefore(List<Postings> lists, int listIndex, long position) {
+            for (int l = 0; l < listIndex; l++) {
+                if (lists.get(l).contains(position)) return true;
+            }
+            return false;
+        }
+
+        private int offer(Slot slot, long position, Matcher matcher, PriorityQueue<Slot> newest, int size) {
+            if (!matcher.matches(slot, position, this)) return 0;
+            newest.add(slot);
+            if (newest.size() > size) newest.poll();
+            return 1;
+        }
+
+        private List<String> terms(LogEntryDTO entry) {
+            List<String> terms = new ArrayList<>();
+            if (entry.getLevel() != null) terms.add("l:" + upper(entry.getLevel()));
+            if (entry.getServiceName() != null) terms.add("s:" + entry.getServiceName());
+            if (entry.getHostName() != null) terms.add("h:" + entry.getHostName());
+            List<String> words = words(text(entry), maxWordsPerEntry + 1);
+            words.stream().limit(maxWordsPerEntry).forEach(word -> terms.add("w:" + word));
+            if (words.size() > maxWordsPerEntry) terms.add(TRUNCATED);
+            return terms;
+        }
+    }
+
+    private static LogEntryDTO copy(LogEntryDTO entry) {
+        // raw text is left out, it is the bulk of an entry and rarely searched for
+        return LogEntryDTO.builder()
+                .id(entry.getId())
+                .level(entry.getLevel())
+                .serviceName(entry.getServiceName())
+                .message(entry.getMessage())
+                .timestamp(entry.getTimestamp())
+                .exception(entry.getException())
+                .hostName(entry.getHostName())
+                .hostIp(entry.getHostIp())
+                .indexName(entry.getIndexName())
+                .metadata(entry.getMetadata() != null ? new HashMap<>(entry.getMetadata()) : null)
+                .repeatCount(entry.getRepeatCount())
+                .firstSeen(entry.getFirstSeen())
+                .lastSeen(entry.getLastSeen())
+                .build();
+    }
+
+    private static long estimateBytes(LogEntryDTO entry, int terms) {
+        long chars = length(entry.getId()) + length(entry.getLevel()) + length(entry.getServiceName())
+                + length(entry.getMessage()) + length(entry.getException()) + length(entry.getHostName())
+                + length(entry.getHostIp()) + length(entry.getIndexName());
+        long metadata = entry.getMetadata() == null ? 0 : 64L * entry.getMetadata().size();
+        // object headers and references, plus 8 bytes per posting
+        return 200 + 2 * chars + metadata + 8L * terms;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
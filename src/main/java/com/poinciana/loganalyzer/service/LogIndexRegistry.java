@@ -0,0 +1,120 @@
+package com.poinciana.loganalyzer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.RestClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of the indices the write path has already seen, so bulk writers don't ask the cluster
+ * whether an index exists before every request.
+ *
+ * The first writer to reach an unknown index checks it and creates it if missing (after making sure the
+ * managed template covers it); concurrent writers for the same index wait on that single attempt instead of
+ * racing their own. Entries stay cached until a write reports the index missing or the index is deleted.
+ */
+@Slf4j
+@Service
+public class LogIndexRegistry {
+
+    private final RestClient restClient;
+    private final LogIndexTemplateService logIndexTemplateService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${log.index.registry.enabled:true}")
+    private boolean enabled;
+
+    private final Map<String, CompletableFuture<Void>> readyIndices = new ConcurrentHashMap<>();
+
+    public LogIndexRegistry(RestClient restClient, LogIndexTemplateService logIndexTemplateService) {
+        this.restClient = restClient;
+        this.logIndexTemplateService = logIndexTemplateService;
+    }
+
+    /**
+     * Makes sure the index exists, creating it on first use.
+     *
+     * @return false if the index could not be checked or created; writes then fall back to auto-create
+     */
+    public boolean ensureIndex(String indexName) {
+        if (!enabled) return true;
+        CompletableFuture<Void> ready = readyIndices.get(indexName);
+        if (ready == null) {
+            CompletableFuture<Void> attempt = new CompletableFuture<>();
+            ready = readyIndices.putIfAbsent(indexName, attempt);
+            if (ready == null) {
+                return createIfMissing(indexName, attempt);
+            }
+        }
+        try {
+            ready.join();
+            return true;
+        } catch (CompletionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Forgets a cached index, so the next write checks (and if needed creates) it again.
+     */
+    public void invalidate(String indexName) {
+        if (readyIndices.remove(indexName) != null) {
+            log.info("Index '{}' removed from the write-path cache", indexName);
+        }
+    }
+
+    private boolean createIfMissing(String indexName, CompletableFuture<Void> attempt) {
+        try {
+            if (!exists(indexName)) {
+                logIndexTemplateService.registerIndices(List.of(indexName));
+                create(indexName);
+            }
+            attempt.complete(null);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // writers wait on the attempt, so it has to be completed whatever went wrong
+            log.warn("Failed to create index '{}', relying on auto-create: {}", indexName, e.toString());
+            // Drop the failed attempt first, so waiting writers' successors try again
+            readyIndices.remove(indexName, attempt);
+            attempt.completeExceptionally(e);
+            return false;
+        }
+    }
+
+    private boolean exists(String indexName) throws IOException {
+        // HEAD also answers 200 for an alias, which is as good as an index for writing through
+        int status = restClient.performRequest(new Request("HEAD", "/" + indexName)).getStatusLine().getStatusCode();
+        return status == 200;
+    }
+
+    private void create(String indexName) throws IOException {
+        try {
+            // Settings, mappings and aliases come from the index templates
+            restClient.performRequest(new Request("PUT", "/" + indexName));
+            log.info("Created index '{}'", indexName);
+        } catch (ResponseException e) {
+            // Another instance (or an auto-create) won the race
+            if (!"resource_already_exists_exception".equals(errorType(e))) throw e;
+        }
+    }
+
+    private String errorType(ResponseException e) {
+        try {
+            JsonNode body = objectMapper.readTree(e.getResponse().getEntity().getContent());
+            return body.path("error").path("type").asText(null);
+        } catch (IOException | RuntimeException ignored) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.poinciana.loganalyzer.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maps the base index names resolved from topics (or given on upload) to physical indices.
+ *
+ * With log.index.rollover.enabled, writes go to daily indices "&lt;base&gt;-yyyy.MM.dd" (UTC, by entry timestamp)
+ * and reads go to the alias "&lt;base&gt;&lt;read-alias-suffix&gt;" that the rollover template puts on every dated
+ * index, so retention can drop whole indices. Without it, base names are used as-is for both.
+ */
+@Service
+@RequiredArgsConstructor
+public class LogIndexRouter {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    private static final Pattern DATED_INDEX = Pattern.compile("^(.+)-(\\d{4}\\.\\d{2}\\.\\d{2})$");
+    private static final long TEMPLATE_RETRY_MILLIS = 60_000;
+
+    private final LogIndexTemplateService logIndexTemplateService;
+
+    @Value("${log.index.rollover.enabled:false}")
+    private boolean rolloverEnabled;
+    @Value("${log.index.rollover.read-alias-suffix:-read}")
+    private String readAliasSuffix;
+
+    private final Set<String> knownBases = ConcurrentHashMap.newKeySet();
+    // Bases whose rollover template is not applied yet, with the earliest time to try again
+    private final Map<String, Long> pendingTemplates = new ConcurrentHashMap<>();
+
+    public boolean isRolloverEnabled() {
+        return rolloverEnabled;
+    }
+
+    /**
+     * Physical index an entry of the given base index is written to.
+     */
+    public String writeIndex(String baseIndex, Instant timestamp) {
+        if (!rolloverEnabled) return baseIndex;
+        if (!knownBases.contains(baseIndex)) {
+            pendingTemplates.putIfAbsent(baseIndex, 0L);
+            knownBases.add(baseIndex);
+        }
+        Long retryAt = pendingTemplates.get(baseIndex);
+        if (retryAt != null && System.currentTimeMillis() >= retryAt) {
+            // template (and its read alias) must exist before the first dated index is auto-created
+            if (logIndexTemplateService.registerRolloverBase(baseIndex, readAlias(baseIndex))) {
+                pendingTemplates.remove(baseIndex);
+            } else {
+                pendingTemplates.put(baseIndex, System.currentTimeMillis() + TEMPLATE_RETRY_MILLIS);
+            }
+        }
+        Instant now = Instant.now();
+        // Missing or implausibly future timestamps are filed under today rather than creating future indices
+        Instant effective = timestamp == null || timestamp.isAfter(now.plus(1, ChronoUnit.DAYS)) ? now : timestamp;
+        return baseIndex + "-" + DAY.format(effective.atZone(ZoneOffset.UTC));
+    }
+
+    /**
+     * Index name or alias to search for the given base index.
+     */
+    public String readTarget(String baseIndex) {
+        return rolloverEnabled ? readAlias(baseIndex) : baseIndex;
+    }
+
+    public String readAlias(String baseIndex) {
+        return baseIndex + readAliasSuffix;
+    }
+
+    /**
+     * Base index names written since startup or registered through the rollover template.
+     */
+    public Set<String> getKnownBases() {
+        return Set.copyOf(knownBases);
+    }
+
+    /**
+     * Day a dated index of the given base holds, if the name is exactly "&lt;base&gt;-yyyy.MM.dd".
+     */
+    public Optional<LocalDate> indexDay(String baseIndex, String indexName) {
+        Matcher matcher = DATED_INDEX.matcher(indexName);
+        if (!matcher.matches() || !matcher.group(1).equals(baseIndex)) return Optional.empty();
+        try {
+            return Optional.of(LocalDate.parse(matcher.group(2), DAY));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
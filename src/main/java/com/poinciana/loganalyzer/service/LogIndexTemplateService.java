@@ -0,0 +1,237 @@
+package com.poinciana.loganalyzer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.poinciana.loganalyzer.config.KafkaGroupResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.RestClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Manages the index templates that give every log index an explicit mapping instead of dynamic mapping:
+ * keyword level/serviceName/hostName, a date timestamp, flattened metadata, and tuned shard count,
+ * refresh interval and best_compression.
+ *
+ * Settings and mappings live in two component templates composed by one index template. The index template
+ * covers "&lt;orgId&gt;_*" (topic names used as index names), the default index, configured extra patterns and
+ * every index name registered from the topic-index map, and is re-applied when a new index name appears.
+ *
+ * With time-partitioned indices, each base index additionally gets its own template for "&lt;base&gt;-*" that
+ * composes the same components and adds the base's read alias to every dated index.
+ */
+@Slf4j
+@Service
+public class LogIndexTemplateService {
+
+    public static final String SETTINGS_COMPONENT = "loganalyzer-settings";
+    public static final String MAPPINGS_COMPONENT = "loganalyzer-mappings";
+    private static final String INDEX_TEMPLATE = "loganalyzer-logs";
+    private static final int INDEX_TEMPLATE_PRIORITY = 100;
+    // Above the shared template; longer bases win over shorter ones whose pattern also matches
+    private static final int ROLLOVER_TEMPLATE_PRIORITY = 200;
+
+    private final RestClient restClient;
+    private final KafkaGroupResolver kafkaGroupResolver;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${log.index.template.enabled:true}")
+    private boolean enabled;
+    @Value("${log.index.template.patterns:}")
+    private String extraPatterns;
+    @Value("${elasticsearch.index}")
+    private String defaultIndex;
+    @Value("${log.index.shards:1}")
+    private int shards;
+    @Value("${log.index.replicas:1}")
+    private int replicas;
+    @Value("${log.index.refresh-interval:30s}")
+    private String refreshInterval;
+
+    private final Set<String> indexPatterns = new TreeSet<>();
+    private final Set<String> rolloverBases = new HashSet<>();
+    private boolean componentsApplied;
+
+    public LogIndexTemplateService(RestClient restClient, KafkaGroupResolver kafkaGroupResolver) {
+        this.restClient = restClient;
+        this.kafkaGroupResolver = kafkaGroupResolver;
+    }
+
+    /**
+     * Puts the component templates and the index template. Called at startup before any log index is created.
+     */
+    public synchronized void applyTemplates() {
+        if (!enabled) return;
+        if (indexPatterns.isEmpty()) {
+            kafkaGroupResolver.getOrgIds().forEach(orgId -> indexPatterns.add(orgId + "_*"));
+            indexPatterns.add(defaultIndex);
+            Arrays.stream(extraPatterns.split(","))
+                    .map(String::trim)
+                    .filter(pattern -> !pattern.isEmpty())
+                    .forEach(indexPatterns::add);
+        }
+        try {
+            putComponentTemplate(SETTINGS_COMPONENT, settingsTemplate());
+            putComponentTemplate(MAPPINGS_COMPONENT, mappingsTemplate());
+            componentsApplied = true;
+            putIndexTemplate();
+        } catch (IOException e) {
+            log.error("Failed to apply log index templates", e);
+        }
+    }
+
+    /**
+     * Makes sure the index template covers the given index names, so they get the managed mapping when
+     * they are created. Only re-applies the template when a name is not yet covered.
+     */
+    public synchronized void registerIndices(Collection<String> indexNames) {
+        if (!enabled) return;
+        if (!componentsApplied) applyTemplates();
+
+        boolean changed = false;
+        for (String indexName : indexNames) {
+            if (indexName == null || indexName.isBlank() || isCovered(indexName) || isRolloverIndex(indexName)) continue;
+            indexPatterns.add(indexName);
+            changed = true;
+        }
+        if (changed) {
+            try {
+                putIndexTemplate();
+            } catch (IOException e) {
+                log.error("Failed to update index template '{}' with new indices {}", INDEX_TEMPLATE, indexNames, e);
+            }
+        }
+    }
+
+    /**
+     * Puts the template for the dated indices of a base index, which adds the read alias to each of them.
+     * An existing non-dated index with the base name is added to the alias too, so reads keep covering it.
+     *
+     * @return false if the template could not be applied
+     */
+    public synchronized boolean registerRolloverBase(String baseIndex, String readAlias) {
+        if (!enabled || rolloverBases.contains(baseIndex)) return true;
+        if (!componentsApplied) applyTemplates();
+        try {
+            ObjectNode body = objectMapper.createObjectNode();
+            body.putArray("index_patterns").add(baseIndex + "-*");
+            body.putArray("composed_of").add(SETTINGS_COMPONENT).add(MAPPINGS_COMPONENT);
+            body.put("priority", ROLLOVER_TEMPLATE_PRIORITY + baseIndex.length());
+            body.putObject("template").putObject("aliases").putObject(readAlias);
+            body.putObject("_meta").put("managed_by", "loganalyzer");
+
+            Request request = new Request("PUT", "/_index_template/" + INDEX_TEMPLATE + "-" + baseIndex);
+            request.setJsonEntity(objectMapper.writeValueAsString(body));
+            restClient.performRequest(request);
+
+            if (isConcreteIndex(baseIndex)) {
+                ObjectNode aliasActions = objectMapper.createObjectNode();
+                aliasActions.putArray("actions").addObject().putObject("add")
+                        .put("index", baseIndex)
+                        .put("alias", readAlias);
+                Request addAlias = new Request("POST", "/_aliases");
+                addAlias.setJsonEntity(objectMapper.writeValueAsString(aliasActions));
+                restClient.performRequest(addAlias);
+            }
+            rolloverBases.add(baseIndex);
+            log.info("Applied rollover template for '{}-*' with read alias '{}'", baseIndex, readAlias);
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to apply rollover template for base index '{}'", baseIndex, e);
+            return false;
+        }
+    }
+
+    private boolean isConcreteIndex(String name) throws IOException {
+        // _alias/<name> on an alias name would also return 200, so ask for the index itself
+        Request request = new Request("GET", "/_cat/indices/" + name);
+        request.addParameter("format", "json");
+        request.addParameter("h", "index");
+        request.addParameter("expand_wildcards", "open");
+        try {
+            JsonNode indices = objectMapper.readTree(restClient.performRequest(request).getEntity().getContent());
+            for (JsonNode index : indices) {
+                if (name.equals(index.path("index").asText())) return true;
+            }
+            return false;
+        } catch (ResponseException e) {
+            if (e.getResponse().getStatusLine().getStatusCode() == 404) return false;
+            throw e;
+        }
+    }
+
+    private boolean isCovered(String indexName) {
+        for (String pattern : indexPatterns) {
+            if (pattern.endsWith("*") ? indexName.startsWith(pattern.substring(0, pattern.length() - 1))
+                    : pattern.equals(indexName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dated indices of a base already get the managed mapping from its own "&lt;base&gt;-*" template; adding
+     * each of them to the shared template would grow its pattern list every day.
+     */
+    private boolean isRolloverIndex(String indexName) {
+        for (String base : rolloverBases) {
+            if (indexName.startsWith(base + "-")) return true;
+        }
+        return false;
+    }
+
+    private ObjectNode settingsTemplate() {
+        ObjectNode body = objectMapper.createObjectNode();
+        ObjectNode index = body.putObject("template").putObject("settings").putObject("index");
+        index.put("number_of_shards", shards);
+        index.put("number_of_replicas", replicas);
+        index.put("refresh_interval", refreshInterval);
+        index.put("codec", "best_compression");
+        return body;
+    }
+
+    private ObjectNode mappingsTemplate() throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.putObject("template").set("mappings", readMappings());
+        return body;
+    }
+
+    private JsonNode readMappings() throws IOException {
+        try (InputStream in = new ClassPathResource("elasticsearch/log-mappings.json").getInputStream()) {
+            return objectMapper.readTree(in);
+        }
+    }
+
+    private void putComponentTemplate(String name, ObjectNode body) throws IOException {
+        Request request = new Request("PUT", "/_component_template/" + name);
+        request.setJsonEntity(objectMapper.writeValueAsString(body));
+        restClient.performRequest(request);
+        log.info("Applied component template '{}'", name);
+    }
+
+    private void putIndexTemplate() throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        indexPatterns.forEach(body.putArray("index_patterns")::add);
+        body.putArray("composed_of").add(SETTINGS_COMPONENT).add(MAPPINGS_COMPONENT);
+        body.put("priority", INDEX_TEMPLATE_PRIORITY);
+        body.putObject("_meta").put("managed_by", "loganalyzer");
+
+        Request request = new Request("PUT", "/_index_template/" + INDEX_TEMPLATE);
+        request.setJsonEntity(objectMapper.writeValueAsString(body));
+        restClient.performRequest(request);
+        log.info("Applied index template '{}' for patterns {}", INDEX_TEMPLATE, indexPatterns);
+    }
+}
@@ -9,13 +9,18 @@ import io.krakens.grok.api.Match;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Robust log parser handling:
@@ -46,6 +51,12 @@ public class LogParserService {
     private static final DateTimeFormatter ISO_WITH_MILLIS = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
     private static final DateTimeFormatter ISO_NO_MILLIS = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
+    // Syslog severities 0-7 mapped to log levels
+    private static final String[] SYSLOG_LEVELS = {"FATAL", "FATAL", "FATAL", "ERROR", "WARN", "INFO", "INFO", "DEBUG"};
+    private static final String NIL = "-";
+    private static final DateTimeFormatter RFC3164_TIMESTAMP = DateTimeFormatter.ofPattern("MMM dd HH:mm:ss", Locale.ENGLISH);
+    private static final Pattern RFC3164_TAG = Pattern.compile("([^\\s\\[:]{1,48})(?:\\[([^\\]]*)\\])?:\\s?");
+
     public LogParserService() {
         this.grok = initializeGrok();
     }
@@ -218,6 +229,149 @@ public class LogParserService {
         }
     }
 
+    /**
+     * Parses one syslog message, RFC 5424 ("&lt;PRI&gt;1 TIMESTAMP HOST APP PROCID MSGID [SD] MSG") or
+     * RFC 3164 ("&lt;PRI&gt;Mmm dd hh:mm:ss HOST TAG[pid]: MSG"). Severity becomes the level, HOSTNAME the host
+     * name and APP-NAME/TAG the service name; facility, proc id, msg id and structured data go to metadata.
+     *
+     * @param rawLog one syslog message without transport framing
+     */
+    public LogEntryDTO parseSyslog(String rawLog) {
+        LogEntryDTO logEntryDTO = LogEntryDTO.builder()
+                .rawLog(rawLog)
+                .metadata(new HashMap<>())
+                .build();
+        if (rawLog == null || rawLog.isBlank()) {
+            logEntryDTO.getMetadata().put("parseFallback", "emptyLog");
+            return logEntryDTO;
+        }
+
+        int priEnd = rawLog.indexOf('>');
+        int pri = -1;
+        if (rawLog.charAt(0) == '<' && priEnd > 1 && priEnd <= 4) {
+            try {
+                pri = Integer.parseInt(rawLog.substring(1, priEnd));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        if (pri < 0 || pri > 191) {
+            logEntryDTO.setMessage(rawLog);
+            logEntryDTO.setTimestamp(Instant.now());
+            logEntryDTO.getMetadata().put("parseFallback", "syslogNoPri");
+            return logEntryDTO;
+        }
+        logEntryDTO.setLevel(SYSLOG_LEVELS[pri % 8]);
+        logEntryDTO.getMetadata().put("syslog.facility", String.valueOf(pri / 8));
+        logEntryDTO.getMetadata().put("syslog.severity", String.valueOf(pri % 8));
+
+        String rest = rawLog.substring(priEnd + 1);
+        try {
+            if (rest.startsWith("1 ")) parseRfc5424(rest.substring(2), logEntryDTO);
+            else parseRfc3164(rest, logEntryDTO);
+        } catch (RuntimeException e) {
+            log.debug("Syslog header parsing failed for {} : {}", safePreview(rawLog), e.toString());
+            logEntryDTO.setMessage(rest);
+            logEntryDTO.getMetadata().put("parseFallback", "syslogHeader");
+        }
+        if (logEntryDTO.getTimestamp() == null) logEntryDTO.setTimestamp(Instant.now());
+        return logEntryDTO;
+    }
+
+    private void parseRfc5424(String rest, LogEntryDTO logEntryDTO) {
+        logEntryDTO.getMetadata().put("syslog.format", "rfc5424");
+        String[] header = rest.split(" ", 6);
+        if (header.length < 5) throw new IllegalArgumentException("incomplete RFC 5424 header");
+        if (!NIL.equals(header[0])) logEntryDTO.setTimestamp(parseTimestampToInstant(header[0], logEntryDTO));
+        if (!NIL.equals(header[1])) logEntryDTO.setHostName(header[1]);
+        if (!NIL.equals(header[2])) logEntryDTO.setServiceName(header[2]);
+        if (!NIL.equals(header[3])) logEntryDTO.getMetadata().put("syslog.procId", header[3]);
+        if (!NIL.equals(header[4])) logEntryDTO.getMetadata().put("syslog.msgId", header[4]);
+
+        String remainder = header.length > 5 ? header[5] : "";
+        int messageStart;
+        if (remainder.startsWith(NIL)) {
+            messageStart = NIL.length();
+        } else {
+            messageStart = parseStructuredData(remainder, logEntryDTO.getMetadata());
+        }
+        String message = remainder.substring(Math.min(messageStart, remainder.length())).stripLeading();
+        if (message.startsWith("\uFEFF")) message = message.substring(1); // UTF-8 BOM
+        logEntryDTO.setMessage(message);
+    }
+
+    /**
+     * Reads "[id key="value" ...]..." into metadata as "sd.id.key".
+     *
+     * @return index after the last element
+     */
+    private int parseStructuredData(String sd, Map<String, Object> metadata) {
+        int i = 0;
+        while (i < sd.length() && sd.charAt(i) == '[') {
+            int idEnd = i + 1;
+            while (idEnd < sd.length() && sd.charAt(idEnd) != ' ' && sd.charAt(idEnd) != ']') idEnd++;
+            String id = sd.substring(i + 1, idEnd);
+            i = idEnd;
+            while (i < sd.length() && sd.charAt(i) != ']') {
+                while (i < sd.length() && sd.charAt(i) == ' ') i++;
+                int eq = sd.indexOf('=', i);
+                if (eq < 0 || eq + 1 >= sd.length() || sd.charAt(eq + 1) != '"') {
+                    throw new IllegalArgumentException("malformed structured data");
+                }
+                String key = sd.substring(i, eq);
+                StringBuilder value = new StringBuilder();
+                i = eq + 2;
+                while (i < sd.length() && sd.charAt(i) != '"') {
+                    char c = sd.charAt(i);
+                    if (c == '\\' && i + 1 < sd.length() && "\"\\]".indexOf(sd.charAt(i + 1)) >= 0) {
+                        c = sd.charAt(++i);
+                    }
+                    value.append(c);
+                    i++;
+                }
+                metadata.put("sd." + id + "." + key, value.toString());
+                i++; // closing quote
+            }
+            i++; // closing bracket
+        }
+        return i;
+    }
+
+    private void parseRfc3164(String rest, LogEntryDTO logEntryDTO) {
+        logEntryDTO.getMetadata().put("syslog.format", "rfc3164");
+        String remainder = rest;
+        if (rest.length() >= 16 && rest.charAt(15) == ' ') {
+            try {
+                // "Mmm dd hh:mm:ss" carries no year or zone
+                TemporalAccessor parsed = RFC3164_TIMESTAMP.parse(rest.substring(0, 15).replace("  ", " 0"));
+                LocalDateTime now = LocalDateTime.now(defaultZone);
+                LocalDateTime ldt = LocalDateTime.of(now.getYear(), parsed.get(ChronoField.MONTH_OF_YEAR),
+                        parsed.get(ChronoField.DAY_OF_MONTH), parsed.get(ChronoField.HOUR_OF_DAY),
+                        parsed.get(ChronoField.MINUTE_OF_HOUR), parsed.get(ChronoField.SECOND_OF_MINUTE));
+                if (ldt.isAfter(now.plusDays(1))) ldt = ldt.minusYears(1); // December logs read in January
+                logEntryDTO.setTimestamp(ldt.atZone(defaultZone).toInstant());
+                logEntryDTO.getMetadata().put("assumedZone", defaultZone.toString());
+                remainder = rest.substring(16);
+            } catch (DateTimeException ignored) {
+                // no timestamp, the rest is host/tag/message
+            }
+        }
+
+        int hostEnd = remainder.indexOf(' ');
+        int colon = remainder.indexOf(':');
+        // a single word followed by a space before any colon is the host name
+        if (hostEnd > 0 && (colon < 0 || hostEnd < colon)) {
+            logEntryDTO.setHostName(remainder.substring(0, hostEnd));
+            remainder = remainder.substring(hostEnd + 1);
+        }
+        Matcher tag = RFC3164_TAG.matcher(remainder);
+        if (tag.lookingAt()) {
+            logEntryDTO.setServiceName(tag.group(1));
+            if (tag.group(2) != null) logEntryDTO.getMetadata().put("syslog.procId", tag.group(2));
+            remainder = remainder.substring(tag.end());
+        }
+        logEntryDTO.setMessage(remainder);
+    }
+
     private String safePreview(String raw) {
         if (raw == null) return "null";
         if (raw.length() <= 200) return raw;
@@ -0,0 +1,472 @@
+package com.poinciana.loganalyzer.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
+import co.elastic.clients.elasticsearch._types.aggregations.DateHistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.JsonData;
+import co.elastic.clients.util.NamedValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.model.LogHistogramBucketDTO;
+import com.poinciana.loganalyzer.model.LogHistogramDTO;
+import com.poinciana.loganalyzer.model.LogSearchRequestDTO;
+import com.poinciana.loganalyzer.service.interfaces.LogEntryListener;
+import com.poinciana.loganalyzer.service.interfaces.TopicIndexMapService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.RestClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ingest-time rollups: log counts per (index, log.aggregation.fields values, log.aggregation.interval bucket).
+ *
+ * Every dispatched batch (Kafka, uploads, syslog, OTLP) is counted as a {@link LogEntryListener} into
+ * {@link LongAdder}s, which stripe their cells so concurrent sink threads don't contend on one counter.
+ * Every log.aggregation.flush-interval-ms the counters are swapped out and added to one small document per
+ * key in log.aggregation.index with an upserting script, so dashboards over long ranges read a few rollup
+ * documents instead of aggregating the raw logs.
+ *
+ * Counts are taken when a batch is dispatched, so they include entries a sink later fails to index. An entry kept
+ * by a sampling rule counts as the 1 / sampleRate logs it stands for, so rollups estimate the pre-sampling volume
+ * rather than what was stored. Each flush
+ * carries this instance's id and a flush sequence that the script records per document; a flush that failed or
+ * timed out is resent as is and skipped by documents that already applied it, so retries never count twice.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "log.aggregation.enabled", havingValue = "true")
+public class LogRollupService implements LogEntryListener {
+
+    private static final ContentType NDJSON = ContentType.create("application/x-ndjson", StandardCharsets.UTF_8);
+    private static final String MISSING_VALUE = "unknown";
+    private static final String INCREMENT_SCRIPT = """
+            def applied = ctx._source.flushes;
+            if (applied == null) { applied = [:]; ctx._source.flushes = applied; }
+            def last = applied[params.instance];
+            if (last != null && last >= params.sequence) { ctx.op = 'none'; }
+            else { ctx._source.count += params.count; applied[params.instance] = params.sequence; }
+            """;
+
+    private final RestClient restClient;
+    private final ElasticsearchClient elasticsearchClient;
+    private final TopicIndexMapService topicIndexMapService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String interval;
+    private final List<String> fields;
+    // Writers count under the read lock, the flush swaps the map under the write lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private Map<RollupKey, LongAdder> counters = new ConcurrentHashMap<>();
+    private volatile boolean indexReady;
+    private final String instanceId = UUID.randomUUID().toString();
+    // guarded by this
+    private long flushSequence;
+    private Flush unconfirmed;
+
+    @Value("${log.aggregation.index:log-rollups}")
+    private String rollupIndex;
+    @Value("${elasticsearch.index}")
+    private String defaultIndex;
+    @Value("${log.histogram.max-groups:20}")
+    private int maxGroups;
+
+    public LogRollupService(@Qualifier("ingestRestClient") RestClient restClient, ElasticsearchClient elasticsearchClient,
+                            TopicIndexMapService topicIndexMapService,
+                            @Value("${log.aggregation.interval:day}") String interval,
+                            @Value("${log.aggregation.fields:level,service}") String fields) {
+        this.restClient = restClient;
+        this.elasticsearchClient = elasticsearchClient;
+        this.topicIndexMapService = topicIndexMapService;
+        this.interval = interval.trim().toLowerCase(Locale.ROOT);
+        calendarInterval(this.interval);
+        this.fields = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .map(LogRollupService::canonicalField)
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public void onEntries(String indexName, List<LogEntryDTO> entries) {
+        long now = System.currentTimeMillis();
+        swapLock.readLock().lock();
+        try {
+            Map<RollupKey, LongAdder> current = counters;
+            for (LogEntryDTO entry : entries) {
+                long timestamp = entry.getTimestamp() != null ? entry.getTimestamp().toEpochMilli() : now;
+                List<String> values = new ArrayList<>(fields.size());
+                for (String field : fields) {
+                    values.add(value(entry, field));
+                }
+                RollupKey key = new RollupKey(indexName, bucketStart(timestamp), values);
+                current.computeIfAbsent(key, k -> new LongAdder()).add(countOf(entry));
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${log.aggregation.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        if (unconfirmed != null) {
+            unconfirmed = send(unconfirmed);
+            // new counts wait, a later sequence applied first would make documents skip the retried one
+            if (unconfirmed != null) return;
+        }
+
+        Map<RollupKey, LongAdder> flushing;
+        swapLock.writeLock().lock();
+        try {
+            if (counters.isEmpty()) return;
+            flushing = counters;
+            counters = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        Map<RollupKey, Long> counts = new LinkedHashMap<>();
+        flushing.forEach((key, count) -> counts.put(key, count.sum()));
+        unconfirmed = send(new Flush(++flushSequence, counts));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Log counts per rollup bucket over the request's time range (default: the last 30 days), optionally per
+     * value of one rollup field. Only the indices, the topics (resolved to their indices) and the filters on
+     * rolled-up fields of the request apply.
+     *
+     * @param groupBy one of log.aggregation.fields, or null for totals only
+     * @throws IllegalArgumentException if the request filters or groups on a field that is not rolled up
+     */
+    public LogHistogramDTO query(LogSearchRequestDTO request, String groupBy) {
+        String groupField = groupBy == null || groupBy.isBlank() ? null : canonicalField(groupBy);
+        if (groupField != null && !fields.contains(groupField)) {
+            throw new IllegalArgumentException("groupBy must be one of " + fields);
+        }
+        if ((request.getQuery() != null && !request.getQuery().isBlank())
+                || (request.getMetadata() != null && !request.getMetadata().isEmpty())) {
+            throw new IllegalArgumentException("Rollups cannot be filtered by query or metadata");
+        }
+        Instant to = request.getTo() != null ? request.getTo() : Instant.now();
+        Instant from = request.getFrom() != null ? request.getFrom() : to.minus(Duration.ofDays(30));
+        long alignedFrom = bucketStart(from.toEpochMilli());
+        long alignedTo = bucketStart(to.toEpochMilli()) + intervalMillis();
+
+        BoolQuery.Builder bool = new BoolQuery.Builder()
+                .filter(f -> f.term(t -> t.field("interval").value(interval)))
+                .filter(f -> f.range(r -> r.untyped(u -> u
+                        .field("bucket")
+                        .gte(JsonData.of(alignedFrom))
+                        .lt(JsonData.of(alignedTo)))));
+        Set<String> indices = new LinkedHashSet<>();
+        if (request.getIndices() != null) indices.addAll(request.getIndices());
+        if (request.getTopics() != null) request.getTopics().forEach(topic -> indices.add(topicIndexMapService.resolveIndex(topic)));
+        if (indices.isEmpty()) indices.add(defaultIndex);
+        bool.filter(f -> f.terms(t -> t.field("index").terms(v -> v.value(values(indices)))));
+        filter(bool, "level", request.getLevels());
+        filter(bool, "serviceName", request.getServiceNames());
+        filter(bool, "hostName", request.getHostNames());
+
+        try {
+            SearchResponse<Void> response = elasticsearchClient.search(s -> s
+                    .index(rollupIndex)
+                    .ignoreUnavailable(true)
+                    .size(0)
+                    .trackTotalHits(t -> t.enabled(false))
+                    .query(q -> q.bool(bool.build()))
+                    .aggregations("histogram", a -> {
+                        a.dateHistogram(h -> h
+                                .field("bucket")
+                                .calendarInterval(calendarInterval(interval))
+                                .minDocCount(1));
+                        a.aggregations("count", c -> c.sum(m -> m.field("count")));
+                        if (groupField != null) {
+                            a.aggregations("groups", g -> g
+                                    .terms(t -> t
+                                            .field("fields." + groupField)
+                                            .size(maxGroups)
+                                            .order(NamedValue.of("count", SortOrder.Desc)))
+                                    .aggregations("count", c -> c.sum(m -> m.field("count"))));
+                        }
+                        return a;
+                    }), Void.class);
+
+            List<LogHistogramBucketDTO> buckets = new ArrayList<>();
+            for (DateHistogramBucket bucket : response.aggregations().get("histogram").dateHistogram().buckets().array()) {
+                Map<String, Long> groups = null;
+                if (groupField != null) {
+                    groups = new LinkedHashMap<>();
+                    for (StringTermsBucket group : bucket.aggregations().get("groups").sterms().buckets().array()) {
+                        groups.put(group.key().stringValue(), (long) group.aggregations().get("count").sum().value());
+                    }
+                }
+                buckets.add(LogHistogramBucketDTO.builder()
+                        .start(Instant.ofEpochMilli(bucket.key()))
+                        .count((long) bucket.aggregations().get("count").sum().value())
+                        .groups(groups)
+                        .build());
+            }
+            return LogHistogramDTO.builder()
+                    .interval(interval)
+                    .groupBy(groupField)
+                    .from(Instant.ofEpochMilli(alignedFrom))
+                    .to(Instant.ofEpochMilli(alignedTo))
+                    .buckets(buckets)
+                    .build();
+        } catch (IOException e) {
+            throw new RuntimeException("Rollup query failed", e);
+        }
+    }
+
+    /**
+     * @return what is left to resend with the same sequence, or null once every update went through
+     */
+    private Flush send(Flush flush) {
+        try {
+            ensureIndex();
+            List<RollupKey> failed = write(flush);
+            if (failed.isEmpty()) return null;
+            log.warn("{} of {} rollup updates failed, retrying them with the next flush", failed.size(), flush.counts().size());
+            Map<RollupKey, Long> remaining = new LinkedHashMap<>();
+            failed.forEach(key -> remaining.put(key, flush.counts().get(key)));
+            return new Flush(flush.sequence(), remaining);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to flush {} rollups to '{}', retrying with the next flush: {}",
+                    flush.counts().size(), rollupIndex, e.getMessage());
+            return flush;
+        }
+    }
+
+    /**
+     * Sends one upsert per key; a key's document id is derived from the key, so repeated flushes of the same
+     * bucket add to one document.
+     *
+     * @return the keys whose update failed
+     */
+    private List<RollupKey> write(Flush flush) throws IOException {
+        List<RollupKey> keys = new ArrayList<>(flush.counts().keySet());
+        ByteArrayOutputStream body = new ByteArrayOutputStream(keys.size() * 256);
+        for (RollupKey key : keys) {
+            long count = flush.counts().get(key);
+            ObjectNode document = objectMapper.createObjectNode()
+                    .put("index", key.index())
+                    .put("interval", interval)
+                    .put("bucket", key.bucket());
+            ObjectNode values = document.putObject("fields");
+            for (int i = 0; i < fields.size(); i++) {
+                values.put(fields.get(i), key.values().get(i));
+            }
+            document.put("count", count);
+            document.putObject("flushes").put(instanceId, flush.sequence());
+
+            ObjectNode action = objectMapper.createObjectNode();
+            action.putObject("update")
+                    .put("_index", rollupIndex)
+                    .put("_id", documentId(key))
+                    .put("retry_on_conflict", 3);
+            ObjectNode update = objectMapper.createObjectNode();
+            update.putObject("script")
+                    .put("source", INCREMENT_SCRIPT)
+                    .put("lang", "painless")
+                    .putObject("params")
+                    .put("count", count)
+                    .put("instance", instanceId)
+                    .put("sequence", flush.sequence());
+            update.set("upsert", document);
+
+            objectMapper.writeValue(body, action);
+            body.write('\n');
+            objectMapper.writeValue(body, update);
+            body.write('\n');
+        }
+
+        Request request = new Request("POST", "/_bulk");
+        request.setEntity(new ByteArrayEntity(body.toByteArray(), NDJSON));
+        JsonNode response = objectMapper.readTree(restClient.performRequest(request).getEntity().getContent());
+        if (!response.path("errors").asBoolean()) return List.of();
+
+        List<RollupKey> failed = new ArrayList<>();
+        JsonNode items = response.path("items");
+        for (int i = 0; i < items.size() && i < keys.size(); i++) {
+            if (items.get(i).path("update").has("error")) failed.add(keys.get(i));
+        }
+        return failed;
+    }
+
+    private void ensureIndex() throws IOException {
+        if (indexReady) return;
+        ObjectNode body = objectMapper.createObjectNode();
+        ObjectNode properties = body.putObject("mappings").putObject("properties");
+        properties.putObject("index").put("type", "keyword");
+        properties.putObject("interval").put("type", "keyword");
+        properties.putObject("bucket").put("type", "date").put("format", "epoch_millis");
+        properties.putObject("fields").put("type", "flattened");
+        properties.putObject("count").put("type", "long");
+        // last flush sequence applied per instance, only read by the update script
+        properties.putObject("flushes").put("type", "object").put("enabled", false);
+
+        Request request = new Request("PUT", "/" + rollupIndex);
+        request.setJsonEntity(body.toString());
+        try {
+            restClient.performRequest(request);
+            log.info("Created rollup index '{}'", rollupIndex);
+        } catch (ResponseException e) {
+            // another instance created it first
+            if (!"resource_already_exists_exception".equals(errorType(e))) throw e;
+        }
+        indexReady = true;
+    }
+
+    private String errorType(ResponseException e) {
+        try {
+            return objectMapper.readTree(e.getResponse().getEntity().getContent()).path("error").path("type").asText(null);
+        } catch (IOException | RuntimeException ignored) {
+            return null;
+        }
+    }
+
+    private String documentId(RollupKey key) {
+        return LogDocumentIds.fromContent(key.index() + '\u0000' + interval + '\u0000' + key.bucket()
+                + '\u0000' + String.join("\u0000", fields) + '\u0000' + String.join("\u0000", key.values()));
+    }
+
+    /**
+     * Start of the bucket holding the timestamp, in UTC; weeks start on Monday like Elasticsearch's calendar weeks.
+     */
+    private long bucketStart(long timestamp) {
+        return switch (interval) {
+            case "minute" -> Math.floorDiv(timestamp, TimeUnit.MINUTES.toMillis(1)) * TimeUnit.MINUTES.toMillis(1);
+            case "hour" -> Math.floorDiv(timestamp, TimeUnit.HOURS.toMillis(1)) * TimeUnit.HOURS.toMillis(1);
+            case "day" -> Math.floorDiv(timestamp, TimeUnit.DAYS.toMillis(1)) * TimeUnit.DAYS.toMillis(1);
+            // 1970-01-05, epoch day 4, was a Monday
+            default -> {
+                long week = TimeUnit.DAYS.toMillis(7);
+                long monday = TimeUnit.DAYS.toMillis(4);
+                yield Math.floorDiv(timestamp - monday, week) * week + monday;
+            }
+        };
+    }
+
+    private long intervalMillis() {
+        return switch (interval) {
+            case "minute" -> TimeUnit.MINUTES.toMillis(1);
+            case "hour" -> TimeUnit.HOURS.toMillis(1);
+            case "day" -> TimeUnit.DAYS.toMillis(1);
+            default -> TimeUnit.DAYS.toMillis(7);
+        };
+    }
+
+    private static CalendarInterval calendarInterval(String interval) {
+        return switch (interval) {
+            case "minute" -> CalendarInterval.Minute;
+            case "hour" -> CalendarInterval.Hour;
+            case "day" -> CalendarInterval.Day;
+            case "week" -> CalendarInterval.Week;
+            default -> throw new IllegalArgumentException("log.aggregation.interval must be minute, hour, day or week: " + interval);
+        };
+    }
+
+    private void filter(BoolQuery.Builder bool, String field, List<String> values) {
+        if (values == null || values.isEmpty()) return;
+        if (!fields.contains(field)) throw new IllegalArgumentException(field + " is not a rollup field, rollups have " + fields);
+        bool.filter(f -> f.terms(t -> t.field("fields." + field).terms(v -> v.value(values(values)))));
+    }
+
+    private static List<FieldValue> values(Collection<String> values) {
+        return values.stream().map(FieldValue::of).toList();
+    }
+
+    /**
+     * Accepts the short names of log.aggregation.fields ("service", "host") besides the document field names.
+     */
+    private static String canonicalField(String field) {
+        return switch (field) {
+            case "service" -> "serviceName";
+            case "host" -> "hostName";
+            default -> field;
+        };
+    }
+
+    private static String value(LogEntryDTO entry, String field) {
+        Object value = switch (field) {
+            case "level" -> entry.getLevel();
+            case "serviceName" -> entry.getServiceName();
+            case "hostName" -> entry.getHostName();
+            case "hostIp" -> entry.getHostIp();
+            default -> field.startsWith("metadata.") && entry.getMetadata() != null
+                    ? entry.getMetadata().get(field.substring("metadata.".length())) : null;
+        };
+        return value == null ? MISSING_VALUE : value.toString();
+    }
+
+    static long countOf(LogEntryDTO entry) {
+        // a collapsed entry stands for repeatCount logs
+        long count = entry.getRepeatCount() != null && entry.getRepeatCount() > 1 ? entry.getRepeatCount() : 1;
+        double sampleRate = sampleRate(entry);
+        return sampleRate < 1.0 ? Math.max(1, Math.round(count / sampleRate)) : count;
+    }
+
+    /**
+     * The sampleRate LogSamplingService stored on the entry, or 1 when it was not sampled; entries that came
+     * through Kafka may carry it as a string.
+     */
+    private static double sampleRate(LogEntryDTO entry) {
+        Object value = entry.getMetadata() != null ? entry.getMetadata().get("sampleRate") : null;
+        double rate = 1.0;
+        if (value instanceof Number number) {
+            rate = number.doubleValue();
+        } else if (value instanceof String text) {
+            try {
+                rate = Double.parseDouble(text);
+            } catch (NumberFormatException ignored) {
+                // not written by the sampler, count the entry once
+            }
+        }
+        return rate > 0 && rate <= 1.0 ? rate : 1.0;
+    }
+
+    private record RollupKey(String index, long bucket, List<String> values) {
+    }
+
+    private record Flush(long sequence, Map<RollupKey, Long> counts) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.poinciana.loganalyzer.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poinciana.loganalyzer.config.LogSamplingConfig;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.model.SamplingRuleDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drops entries right after parsing according to the configured {@link SamplingRuleDTO}s.
+ *
+ * Kept entries from a sampled rule carry "sampleRate" in their metadata so counts can be
+ * extrapolated (count / sampleRate). For token-bucket limited rules the rate is estimated from
+ * the admission ratio of the previous second.
+ */
+@Slf4j
+@Service
+public class LogSamplingService {
+
+    private static final int MAX_BUCKETS = 10_000;
+
+    private final LogSamplingConfig samplingConfig;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private volatile List<SamplingRuleDTO> rules = List.of();
+    private volatile long rulesFileLastModified = -1;
+
+    @Autowired
+    public LogSamplingService(LogSamplingConfig samplingConfig) {
+        this(samplingConfig, Clock.systemUTC());
+    }
+
+    LogSamplingService(LogSamplingConfig samplingConfig, Clock clock) {
+        this.samplingConfig = samplingConfig;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void init() {
+        rules = List.copyOf(samplingConfig.getRules());
+        reloadRulesFile();
+        log.info("Ingest sampling enabled={}, {} rule(s) loaded", samplingConfig.isEnabled(), rules.size());
+    }
+
+    /**
+     * @return true if the entry should be kept, false if it was sampled out
+     */
+    public boolean sample(LogEntryDTO logEntryDTO) {
+        if (!samplingConfig.isEnabled()) return true;
+
+        List<SamplingRuleDTO> currentRules = rules;
+        for (int i = 0; i < currentRules.size(); i++) {
+            SamplingRuleDTO rule = currentRules.get(i);
+            if (matches(rule, logEntryDTO)) {
+                return apply(i, rule, logEntryDTO);
+            }
+        }
+        return true;
+    }
+
+    public List<SamplingRuleDTO> getRules() {
+        return rules;
+    }
+
+    public void replaceRules(List<SamplingRuleDTO> newRules) {
+        rules = List.copyOf(newRules);
+        buckets.clear();
+        log.info("Sampling rules replaced, {} rule(s) active", newRules.size());
+    }
+
+    /**
+     * Re-reads the rules file if it changed since the last load.
+     */
+    @Scheduled(fixedDelayString = "${log.sampling.reload-interval-ms:30000}")
+    public void reloadRulesFile() {
+        String rulesFile = samplingConfig.getRulesFile();
+        if (rulesFile == null || rulesFile.isBlank()) return;
+
+        File file = new File(rulesFile);
+        if (!file.isFile() || file.lastModified() == rulesFileLastModified) return;
+        try {
+            List<SamplingRuleDTO> fileRules = objectMapper.readValue(file, new TypeReference<List<SamplingRuleDTO>>() {});
+            rulesFileLastModified = file.lastModified();
+            replaceRules(fileRules);
+        } catch (IOException e) {
+            log.error("Failed to load sampling rules from {}: {}", rulesFile, e.getMessage());
+        }
+    }
+
+    private boolean apply(int ruleIndex, SamplingRuleDTO rule, LogEntryDTO logEntryDTO) {
+        double effectiveRate = 1.0;
+
+        if (rule.getRate() < 1.0) {
+            if (rule.getRate() <= 0 || ThreadLocalRandom.current().nextDouble() >= rule.getRate()) return false;
+            effectiveRate = rule.getRate();
+        }
+
+        if (rule.getMaxPerSecond() > 0) {
+            if (buckets.size() > MAX_BUCKETS) buckets.clear();
+            String bucketKey = ruleIndex + "|" + logEntryDTO.getIndexName() + "|" + logEntryDTO.getServiceName();
+            long now = clock.millis();
+            TokenBucket bucket = buckets.computeIfAbsent(bucketKey, k -> new TokenBucket(rule.getMaxPerSecond(), now));
+            if (!bucket.tryAcquire(now)) return false;
+            effectiveRate *= bucket.admissionRatio();
+        }
+
+        if (effectiveRate < 1.0) {
+            if (logEntryDTO.getMetadata() == null) logEntryDTO.setMetadata(new HashMap<>());
+            logEntryDTO.getMetadata().put("sampleRate", effectiveRate);
+        }
+        return true;
+    }
+
+    private boolean matches(SamplingRuleDTO rule, LogEntryDTO logEntryDTO) {
+        return matchesKey(rule.getIndex(), logEntryDTO.getIndexName())
+                && matchesKey(rule.getServiceName(), logEntryDTO.getServiceName())
+                && matchesKey(rule.getLevel(), logEntryDTO.getLevel());
+    }
+
+    private boolean matchesKey(String expected, String actual) {
+        if (expected == null || expected.isEmpty() || "*".equals(expected)) return true;
+        return expected.equalsIgnoreCase(actual);
+    }
+
+    /**
+     * Token bucket refilled continuously at {@code ratePerSecond}, with a burst of one second.
+     * Also tracks the admission ratio of the previous second for sampleRate estimation.
+     */
+    private static final class TokenBucket {
+        private final long ratePerSecond;
+        private double tokens;
+        private long lastRefillMillis;
+
+        private long windowStartMillis;
+        private long windowSeen;
+        private long windowAdmitted;
+        private double lastRatio = 1.0;
+
+        TokenBucket(long ratePerSecond, long nowMillis) {
+            this.ratePerSecond = ratePerSecond;
+            this.tokens = ratePerSecond;
+            this.lastRefillMillis = nowMillis;
+            this.windowStartMillis = nowMillis;
+        }
+
+        synchronized boolean tryAcquire(long nowMillis) {
+            // the clock may step back; never refill for negative time
+            long elapsed = Math.max(0, nowMillis - lastRefillMillis);
+            tokens = Math.min(ratePerSecond, tokens + elapsed * ratePerSecond / 1000.0);
+            lastRefillMillis = Math.max(lastRefillMillis, nowMillis);
+
+            if (nowMillis - windowStartMillis >= 1000) {
+                lastRatio = windowSeen == 0 ? 1.0 : (double) windowAdmitted / windowSeen;
+                windowStartMillis = nowMillis;
+                windowSeen = 0;
+                windowAdmitted = 0;
+            }
+            windowSeen++;
+
+            if (tokens < 1) return false;
+            tokens -= 1;
+            windowAdmitted++;
+            return true;
+        }
+
+        synchronized double admissionRatio() {
+            return lastRatio;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.poinciana.loganalyzer.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.mapping.FieldType;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.model.LogSearchRequestDTO;
+import com.poinciana.loganalyzer.model.LogSearchResponseDTO;
+import com.poinciana.loganalyzer.service.interfaces.TopicIndexMapService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Searches the log indices, newest first, one page at a time.
+ *
+ * Pages are read from a point-in-time (PIT) with search_after on (timestamp, _shard_doc) instead of from/size,
+ * so every page costs the same however deep it is and sees a consistent snapshot while new logs arrive.
+ * The cursor handed to the client carries the PIT id and the sort values of the last hit; the PIT is kept
+ * alive log.search.pit-keep-alive between pages and closed after the last one.
+ *
+ * With the {@link LogHotWindowService hot window} enabled, the newest part of a search (everything the window
+ * holds) is read from memory first and the search continues in Elasticsearch below the window.
+ */
+@Slf4j
+@Service
+public class LogSearchService {
+
+    private static final List<String> FULL_TEXT_FIELDS = List.of("message", "exception");
+    private static final String EXPIRED_CURSOR = "Search cursor has expired, start again without a cursor";
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final LogIndexRouter logIndexRouter;
+    private final TopicIndexMapService topicIndexMapService;
+    private final LogHotWindowService logHotWindowService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${elasticsearch.index}")
+    private String defaultIndex;
+    @Value("${log.search.page-size:50}")
+    private int pageSize;
+    @Value("${log.search.max-results:1000}")
+    private int maxResults;
+    @Value("${log.search.pit-keep-alive:1m}")
+    private String pitKeepAlive;
+
+    public LogSearchService(ElasticsearchClient elasticsearchClient, LogIndexRouter logIndexRouter,
+                            TopicIndexMapService topicIndexMapService, LogHotWindowService logHotWindowService,
+                            ObjectMapper objectMapper) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.logIndexRouter = logIndexRouter;
+        this.topicIndexMapService = topicIndexMapService;
+        this.logHotWindowService = logHotWindowService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed or its point-in-time has expired
+     */
+    public LogSearchResponseDTO search(LogSearchRequestDTO request) {
+        int size = Math.min(request.getSize() != null && request.getSize() > 0 ? request.getSize() : pageSize, maxResults);
+        Cursor cursor = request.getCursor() == null || request.getCursor().isBlank() ? null : decodeCursor(request.getCursor());
+        if (cursor == null || cursor.hot() != null) {
+            LogSearchResponseDTO fromWindow = searchHotWindow(request, size, cursor);
+            if (fromWindow != null) return fromWindow;
+            if (cursor != null) throw new IllegalArgumentException(EXPIRED_CURSOR);
+        }
+        return searchElasticsearch(request, size, cursor, cursor != null ? cursor.before() : null, cursor == null);
+    }
+
+    /**
+     * Reads the part of the search inside the {@link LogHotWindowService hot window} from memory and continues
+     * in Elasticsearch below it once the window is exhausted.
+     *
+     * @return null if the window does not cover the request, or moved on while it was read
+     */
+    private LogSearchResponseDTO searchHotWindow(LogSearchRequestDTO request, int size, Cursor cursor) {
+        List<String> bases = resolveBases(request);
+        Long windowFrom = cursor != null ? cursor.windowFrom() : logHotWindowService.coveredFrom(bases, request);
+        if (windowFrom == null || (request.getTo() != null && request.getTo().toEpochMilli() < windowFrom)) return null;
+
+        LogHotWindowService.Page page = logHotWindowService.search(bases, request, windowFrom,
+                cursor != null ? cursor.hot() : null, size);
+        Long coveredFrom = logHotWindowService.coveredFrom(bases, request);
+        // entries of the range were evicted while reading
+        if (coveredFrom == null || coveredFrom > windowFrom) return null;
+
+        boolean firstPage = cursor == null;
+        boolean olderInElasticsearch = request.getFrom() == null || request.getFrom().toEpochMilli() < windowFrom;
+        List<LogEntryDTO> logs = new ArrayList<>(page.entries());
+        if (logs.size() == size) {
+            String nextCursor = encodeCursor(new Cursor(null, null, null, page.last(), windowFrom));
+            return new LogSearchResponseDTO(logs, firstPage && !olderInElasticsearch ? page.matches() : -1, nextCursor);
+        }
+        if (!olderInElasticsearch) {
+            return new LogSearchResponseDTO(logs, firstPage ? page.matches() : -1, null);
+        }
+        // The window is exhausted: the rest of this page and the following ones come from below it
+        LogSearchResponseDTO older = searchElasticsearch(request, size - logs.size(), null, windowFrom - 1, firstPage);
+        logs.addAll(older.getLogs());
+        long totalHits = firstPage && older.getTotalHits() >= 0 ? page.matches() + older.getTotalHits() : -1;
+        return new LogSearchResponseDTO(logs, totalHits, older.getNextCursor());
+    }
+
+    /**
+     * @param before latest timestamp to read (epoch millis), or null for no bound beyond the request's
+     */
+    private LogSearchResponseDTO searchElasticsearch(LogSearchRequestDTO request, int size, Cursor cursor, Long before,
+                                                     boolean countHits) {
+        try {
+            String pitId = cursor != null ? cursor.pit() : openPointInTime(readTargets(request));
+            Query query = buildQuery(request);
+            if (before != null) {
+                Query filters = query;
+                query = Query.of(q -> q.bool(b -> b
+                        .filter(filters)
+                        .filter(f -> f.range(r -> r.untyped(u -> u.field("timestamp").lte(JsonData.of(before)))))));
+            }
+
+            SearchRequest.Builder search = new SearchRequest.Builder()
+                    .pit(p -> p.id(pitId).keepAlive(k -> k.time(pitKeepAlive)))
+                    .query(query)
+                    .size(size)
+                    .sort(sortOrder())
+                    .trackTotalHits(t -> t.enabled(countHits));
+            if (cursor != null) {
+                search.searchAfter(cursor.after().stream().map(value -> FieldValue.of(value.longValue())).toList());
+            }
+            if (request.getFields() != null && !request.getFields().isEmpty()) {
+                search.source(s -> s.filter(f -> f.includes(request.getFields())));
+            }
+
+            SearchResponse<ObjectNode> response = elasticsearchClient.search(search.build(), ObjectNode.class);
+            List<Hit<ObjectNode>> hits = response.hits().hits();
+            List<LogEntryDTO> logs = new ArrayList<>(hits.size());
+            for (Hit<ObjectNode> hit : hits) {
+                logs.add(toDto(hit.id(), hit.source()));
+            }
+
+            String nextCursor = null;
+            String nextPitId = response.pitId() != null ? response.pitId() : pitId;
+            if (hits.size() == size) {
+                List<Long> after = hits.get(hits.size() - 1).sort().stream().map(FieldValue::longValue).toList();
+                nextCursor = encodeCursor(new Cursor(nextPitId, after, before, null, null));
+            } else {
+                closePointInTime(nextPitId);
+            }
+            long totalHits = countHits && response.hits().total() != null ? response.hits().total().value() : -1;
+            return new LogSearchResponseDTO(logs, totalHits, nextCursor);
+        } catch (ElasticsearchException e) {
+            if (cursor != null && e.status() == 404) {
+                throw new IllegalArgumentException(EXPIRED_CURSOR, e);
+            }
+            throw new RuntimeException("Log search failed", e);
+        } catch (IOException e) {
+            throw new RuntimeException("Log search failed", e);
+        }
+    }
+
+    /**
+     * Base indices the request covers: the given indices, the indices of the given topics, or all mapped
+     * indices plus the default one.
+     */
+    public List<String> resolveBases(LogSearchRequestDTO request) {
+        Set<String> bases = new LinkedHashSet<>();
+        if (request.getIndices() != null) bases.addAll(request.getIndices());
+        if (request.getTopics() != null) request.getTopics().forEach(topic -> bases.add(topicIndexMapService.resolveIndex(topic)));
+        if (bases.isEmpty()) {
+            bases.addAll(topicIndexMapService.getCurrentMap().values());
+            bases.add(defaultIndex);
+        }
+        return List.copyOf(bases);
+    }
+
+    /**
+     * Indices or aliases to read for the request's {@link #resolveBases base indices}.
+     */
+    public List<String> readTargets(LogSearchRequestDTO request) {
+        return resolveBases(request).stream().map(logIndexRouter::readTarget).toList();
+    }
+
+    /**
+     * Filters of the request as one bool query; filters that are not set match everything.
+     */
+    public Query buildQuery(LogSearchRequestDTO request) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        anyOf(bool, "level", request.getLevels());
+        anyOf(bool, "serviceName", request.getServiceNames());
+        anyOf(bool, "hostName", request.getHostNames());
+        if (request.getFrom() != null || request.getTo() != null) {
+            bool.filter(f -> f.range(r -> r.untyped(u -> {
+                u.field("timestamp");
+                if (request.getFrom() != null) u.gte(JsonData.of(request.getFrom().toEpochMilli()));
+                if (request.getTo() != null) u.lte(JsonData.of(request.getTo().toEpochMilli()));
+                return u;
+            })));
+        }
+        if (request.getMetadata() != null) {
+            request.getMetadata().forEach((key, value) ->
+                    bool.filter(f -> f.term(t -> t.field("metadata." + key).value(value))));
+        }
+        if (request.getQuery() != null && !request.getQuery().isBlank()) {
+            bool.must(m -> m.simpleQueryString(s -> s
+                    .query(request.getQuery())
+                    .fields(FULL_TEXT_FIELDS)
+                    .defaultOperator(Operator.And)));
+        }
+        return Query.of(q -> q.bool(bool.build()));
+    }
+
+    /**
+     * Newest first; _shard_doc breaks ties between entries of the same millisecond within a PIT.
+     */
+    public List<SortOptions> sortOrder() {
+        return List.of(
+                SortOptions.of(s -> s.field(f -> f.field("timestamp").order(SortOrder.Desc).unmappedType(FieldType.Date))),
+                SortOptions.of(s -> s.field(f -> f.field("_shard_doc").order(SortOrder.Desc))));
+    }
+
+    public String openPointInTime(List<String> targets) throws IOException {
+        return elasticsearchClient.openPointInTime(o -> o
+                .index(targets)
+                .keepAlive(k -> k.time(pitKeepAlive))
+                .ignoreUnavailable(true)).id();
+    }
+
+    public void closePointInTime(String pitId) {
+        try {
+            elasticsearchClient.closePointInTime(c -> c.id(pitId));
+        } catch (IOException | ElasticsearchException e) {
+            // it expires on its own after the keep-alive
+            log.debug("Failed to close point-in-time: {}", e.toString());
+        }
+    }
+
+    /**
+     * Maps a (possibly _source-filtered) hit; documents store timestamps as epoch millis or ISO strings.
+     */
+    public LogEntryDTO toDto(String id, JsonNode source) {
+        LogEntryDTO logEntryDTO = LogEntryDTO.builder().id(id).build();
+        if (source == null) return logEntryDTO;
+        logEntryDTO.setTimestamp(instant(source.get("timestamp")));
+        logEntryDTO.setLevel(text(source.get("level")));
+        logEntryDTO.setServiceName(text(source.get("serviceName")));
+        logEntryDTO.setMessage(text(source.get("message")));
+        logEntryDTO.setException(text(source.get("exception")));
+        logEntryDTO.setHostName(text(source.get("hostName")));
+        logEntryDTO.setHostIp(text(source.get("hostIp")));
+        logEntryDTO.setRawLog(text(source.has("rawLog") ? source.get("rawLog") : source.get("rawLogStored")));
+        if (source.get("metadata") instanceof ObjectNode metadata) {
+            Map<String, Object> values = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = metadata.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                values.put(field.getKey(), objectMapper.convertValue(field.getValue(), Object.class));
+            }
+            logEntryDTO.setMetadata(values);
+        }
+        if (source.hasNonNull("repeatCount")) logEntryDTO.setRepeatCount(source.get("repeatCount").asLong());
+        logEntryDTO.setFirstSeen(instant(source.get("firstSeen")));
+        logEntryDTO.setLastSeen(instant(source.get("lastSeen")));
+        return logEntryDTO;
+    }
+
+    private static void anyOf(BoolQuery.Builder bool, String field, List<String> values) {
+        if (values == null || values.isEmpty()) return;
+        // match rather than term: "level" is analyzed text in indices created before the managed templates
+        bool.filter(f -> f.bool(b -> {
+            values.forEach(value -> b.should(s -> s.match(m -> m.field(field).query(value))));
+            return b.minimumShouldMatch("1");
+        }));
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private static Instant instant(JsonNode node) {
+        if (node == null || node.isNull()) return null;
+        if (node.isNumber()) return Instant.ofEpochMilli(node.asLong());
+        try {
+            return OffsetDateTime.parse(node.asText()).toInstant();
+        } catch (DateTimeParseException e) {
+            try {
+                return Instant.parse(node.asText());
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private String encodeCursor(Cursor cursor) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode search cursor", e);
+        }
+    }
+
+    private Cursor decodeCursor(String cursor) {
+        try {
+            Cursor decoded = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), Cursor.class);
+            boolean elasticsearch = decoded.pit() != null && decoded.after() != null;
+            boolean hotWindow = decoded.hot() != null && decoded.hot().size() == 2 && decoded.windowFrom() != null;
+            if (!elasticsearch && !hotWindow) throw new IllegalArgumentException("Invalid search cursor");
+            return decoded;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+
+    /**
+     * Either a point-in-time with the sort values of the last hit, capped at {@code before} once a search has
+     * left the hot window, or the (timestamp, sequence) of the last entry read from a hot window that held
+     * everything from {@code windowFrom}.
+     */
+    private record Cursor(String pit, List<Long> after, Long before, List<Long> hot, Long windowFrom) {
+    }
+}
@@ -0,0 +1,215 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.model.LogSinkStatusDTO;
+import com.poinciana.loganalyzer.service.interfaces.LogEntryListener;
+import com.poinciana.loganalyzer.service.interfaces.LogSink;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans batches of log entries out to every {@link LogSink} in parallel.
+ *
+ * Each sink has its own bounded queue and worker thread(s), so a slow or failing sink only affects itself:
+ * when a required sink's queue is full, dispatching blocks (pushing back on the Kafka consumer or upload);
+ * when an optional sink's queue is full, the batch is dropped for that sink only. Sink failures are logged
+ * and counted, never propagated to the other sinks.
+ *
+ * {@link LogEntryListener}s see each batch before it is queued.
+ */
+@Slf4j
+@Service
+public class LogSinkDispatcher {
+
+    private final List<SinkWorker> workers = new ArrayList<>();
+    private final ObjectProvider<LogEntryListener> listenerProvider;
+    // Resolved on first dispatch, listeners may depend on beans that are created after the dispatcher
+    private volatile List<LogEntryListener> listeners;
+
+    @Value("${log.sink.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+    @Value("${log.sink.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    public LogSinkDispatcher(List<LogSink> sinks, ObjectProvider<LogEntryListener> listenerProvider,
+                             @Value("${log.sink.queue-capacity:64}") int queueCapacity) {
+        this.listenerProvider = listenerProvider;
+        for (LogSink sink : sinks) {
+            SinkWorker worker = new SinkWorker(sink, queueCapacity);
+            workers.add(worker);
+            worker.threads.forEach(Thread::start);
+            log.info("Log sink '{}' started ({}, {} workers)", sink.name(), sink.isRequired() ? "required" : "optional",
+                    worker.threads.size());
+        }
+    }
+
+    /**
+     * Hands the batch to every sink.
+     *
+     * @return completes once all required sinks have written the batch, exceptionally if one of them failed
+     */
+    public CompletableFuture<Void> dispatch(String indexName, List<LogEntryDTO> entries) {
+        if (entries.isEmpty()) return CompletableFuture.completedFuture(null);
+        notifyListeners(indexName, entries);
+
+        List<CompletableFuture<Void>> required = new ArrayList<>();
+        for (SinkWorker worker : workers) {
+            SinkBatch batch = new SinkBatch(indexName, entries, new CompletableFuture<>());
+            if (worker.sink.isRequired()) {
+                try {
+                    worker.queue.put(batch);
+                    required.add(batch.done());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return CompletableFuture.failedFuture(e);
+                }
+            } else if (!worker.queue.offer(batch)) {
+                long dropped = worker.dropped.incrementAndGet();
+                log.warn("Queue of log sink '{}' is full, dropped {} logs for index '{}' ({} batches dropped so far)",
+                        worker.sink.name(), entries.size(), indexName, dropped);
+            }
+        }
+        return CompletableFuture.allOf(required.toArray(CompletableFuture[]::new));
+    }
+
+    private void notifyListeners(String indexName, List<LogEntryDTO> entries) {
+        List<LogEntryListener> current = listeners;
+        if (current == null) {
+            current = listenerProvider.orderedStream().toList();
+            listeners = current;
+        }
+        for (LogEntryListener listener : current) {
+            try {
+                listener.onEntries(indexName, entries);
+            } catch (RuntimeException e) {
+                log.warn("Log entry listener {} failed: {}", listener.getClass().getSimpleName(), e.toString());
+            }
+        }
+    }
+
+    public List<LogSinkStatusDTO> getStatus() {
+        List<LogSinkStatusDTO> status = new ArrayList<>(workers.size());
+        for (SinkWorker worker : workers) {
+            status.add(LogSinkStatusDTO.builder()
+                    .name(worker.sink.name())
+                    .required(worker.sink.isRequired())
+                    .healthy(worker.sink.isHealthy())
+                    .queuedBatches(worker.queue.size())
+                    .writtenBatches(worker.written.get())
+                    .failedBatches(worker.failed.get())
+                    .droppedBatches(worker.dropped.get())
+                    .lastError(worker.lastError)
+                    .lastErrorAt(worker.lastErrorAt)
+                    .build());
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Workers drain what is queued and flush before they exit
+        workers.forEach(worker -> worker.running = false);
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        for (SinkWorker worker : workers) {
+            try {
+                for (Thread thread : worker.threads) {
+                    thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (worker.threads.stream().anyMatch(Thread::isAlive)) {
+                log.warn("Log sink '{}' did not finish within {} ms, {} batches left unwritten",
+                        worker.sink.name(), shutdownTimeoutMs, worker.queue.size());
+                worker.threads.forEach(Thread::interrupt);
+            }
+        }
+    }
+
+    private record SinkBatch(String indexName, List<LogEntryDTO> entries, CompletableFuture<Void> done) {
+    }
+
+    private final class SinkWorker implements Runnable {
+        private final LogSink sink;
+        private final BlockingQueue<SinkBatch> queue;
+        private final List<Thread> threads = new ArrayList<>();
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean running = true;
+        private volatile String lastError;
+        private volatile Instant lastErrorAt;
+
+        private SinkWorker(LogSink sink, int queueCapacity) {
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            int concurrency = Math.max(1, sink.concurrency());
+            for (int i = 0; i < concurrency; i++) {
+                Thread thread = new Thread(this, concurrency == 1 ? "log-sink-" + sink.name() : "log-sink-" + sink.name() + "-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            long lastFlush = System.currentTimeMillis();
+            while (running || !queue.isEmpty()) {
+                SinkBatch batch;
+                try {
+                    batch = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (batch != null) write(batch);
+                if (batch == null || System.currentTimeMillis() - lastFlush >= flushIntervalMs) {
+                    flush();
+                    lastFlush = System.currentTimeMillis();
+                }
+            }
+            flush();
+        }
+
+        private void write(SinkBatch batch) {
+            try {
+                sink.write(batch.indexName(), batch.entries());
+                written.incrementAndGet();
+                batch.done().complete(null);
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                recordError(e);
+                log.error("Log sink '{}' failed to write {} logs for index '{}'",
+                        sink.name(), batch.entries().size(), batch.indexName(), e);
+                batch.done().completeExceptionally(e);
+            }
+        }
+
+        private void flush() {
+            try {
+                sink.flush();
+            } catch (IOException | RuntimeException e) {
+                recordError(e);
+                log.error("Log sink '{}' failed to flush", sink.name(), e);
+            }
+        }
+
+        private void recordError(Exception e) {
+            lastError = e.getMessage();
+            lastErrorAt = Instant.now();
+        }
+    }
+}
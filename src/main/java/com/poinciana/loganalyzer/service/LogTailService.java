@@ -0,0 +1,229 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Live tail: parsed entries are published here by every ingest path right after parsing (before sampling),
+ * and streamed as server-sent events to the subscribers whose filters match, without touching Elasticsearch.
+ *
+ * Filters run on the publishing thread, so only matching entries are buffered and serialized. Each subscriber
+ * has a bounded buffer of log.tail.buffer-size entries that drops its oldest entries when the client reads
+ * slower than logs arrive, and is drained by its own sender task, so one slow client never holds up ingestion
+ * or the other subscribers. Publishing costs one volatile read while nobody is tailing.
+ */
+@Slf4j
+@Service
+public class LogTailService {
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "log-tail-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-tail-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${log.tail.buffer-size:1000}")
+    private int bufferSize;
+    @Value("${log.tail.max-subscribers:50}")
+    private int maxSubscribers;
+    @Value("${log.tail.timeout-ms:3600000}")
+    private long timeoutMs;
+
+    public LogTailService(@Value("${log.tail.heartbeat-ms:15000}") long heartbeatMs) {
+        // a comment line now and then finds clients that went away while nothing matched their filters
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(Subscriber::heartbeat),
+                heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a tail. Every filter is optional; an entry must match all the given ones.
+     *
+     * @param indices   base index names
+     * @param services  service names
+     * @param levels    levels, case-insensitive
+     * @param contains  substring of the message
+     * @throws IllegalStateException if log.tail.max-subscribers tails are already open
+     */
+    public SseEmitter subscribe(List<String> indices, List<String> services, List<String> levels, String contains) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many live tails open (" + maxSubscribers + ")");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, new Filter(
+                set(indices, false), set(services, false), set(levels, true),
+                contains == null || contains.isEmpty() ? null : contains));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public void publish(LogEntryDTO entry) {
+        if (subscribers.isEmpty()) return;
+        LogEntryDTO snapshot = null;
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.filter.matches(entry)) continue;
+            // the pipeline keeps changing the entry (host details, collapse) while senders serialize it
+            if (snapshot == null) snapshot = snapshot(entry);
+            subscriber.offer(snapshot);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private static LogEntryDTO snapshot(LogEntryDTO entry) {
+        return LogEntryDTO.builder()
+                .id(entry.getId())
+                .level(entry.getLevel())
+                .serviceName(entry.getServiceName())
+                .message(entry.getMessage())
+                .timestamp(entry.getTimestamp())
+                .exception(entry.getException())
+                .hostName(entry.getHostName())
+                .hostIp(entry.getHostIp())
+                .rawLog(entry.getRawLog())
+                .indexName(entry.getIndexName())
+                .metadata(entry.getMetadata() != null ? new HashMap<>(entry.getMetadata()) : null)
+                .build();
+    }
+
+    private static Set<String> set(List<String> values, boolean upperCase) {
+        if (values == null || values.isEmpty()) return null;
+        return values.stream()
+                .map(value -> upperCase ? value.toUpperCase(Locale.ROOT) : value)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private record Filter(Set<String> indices, Set<String> services, Set<String> levels, String contains) {
+
+        private boolean matches(LogEntryDTO entry) {
+            // immutable sets throw on contains(null)
+            if (indices != null && (entry.getIndexName() == null || !indices.contains(entry.getIndexName()))) return false;
+            if (services != null && (entry.getServiceName() == null || !services.contains(entry.getServiceName()))) return false;
+            if (levels != null && (entry.getLevel() == null || !levels.contains(entry.getLevel().toUpperCase(Locale.ROOT)))) {
+                return false;
+            }
+            return contains == null || (entry.getMessage() != null && entry.getMessage().contains(contains));
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Filter filter;
+        // guarded by this
+        private final ArrayDeque<LogEntryDTO> buffer = new ArrayDeque<>();
+        private long dropped;
+        private boolean heartbeatDue;
+        private boolean sending;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        private void offer(LogEntryDTO entry) {
+            synchronized (this) {
+                if (closed) return;
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(entry);
+                if (sending) return;
+                sending = true;
+            }
+            startSending();
+        }
+
+        private void heartbeat() {
+            synchronized (this) {
+                if (closed) return;
+                heartbeatDue = true;
+                if (sending) return;
+                sending = true;
+            }
+            startSending();
+        }
+
+        private void startSending() {
+            try {
+                senders.execute(this::send);
+            } catch (RuntimeException e) {
+                close();
+            }
+        }
+
+        /**
+         * Sends until the buffer is empty; only one send task runs per subscriber at a time.
+         */
+        private void send() {
+            try {
+                while (true) {
+                    LogEntryDTO entry;
+                    long droppedSinceLast;
+                    boolean heartbeat;
+                    synchronized (this) {
+                        entry = buffer.pollFirst();
+                        droppedSinceLast = dropped;
+                        dropped = 0;
+                        heartbeat = heartbeatDue;
+                        heartbeatDue = false;
+                        if (entry == null && droppedSinceLast == 0 && !heartbeat) {
+                            sending = false;
+                            return;
+                        }
+                    }
+                    if (droppedSinceLast > 0) {
+                        // tells the client it missed entries because it reads too slowly
+                        emitter.send(SseEmitter.event().name("dropped").data(droppedSinceLast));
+                    }
+                    if (heartbeat) emitter.send(SseEmitter.event().comment("heartbeat"));
+                    if (entry != null) emitter.send(SseEmitter.event().name("log").data(entry, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Live tail client went away: {}", e.toString());
+                emitter.completeWithError(e);
+                close();
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                buffer.clear();
+            }
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.IngestSummaryDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ingests large log files from the server-side directory log.ingest.local.dir for backfills.
+ *
+ * The file is memory-mapped and split into roughly equal chunks, one per core or more; every chunk boundary
+ * is moved forward to the start of a line that begins a log entry (the same timestamp rule as uploads), so
+ * no entry spans two chunks. Chunks are read and parsed in parallel, each in order on its own thread.
+ */
+@Slf4j
+@Service
+public class MappedFileIngestor {
+
+    private static final long MIN_CHUNK_BYTES = 8L * 1024 * 1024;
+    // A single mapping is limited to 2 GB: a chunk plus the scan for its end boundary stays below that
+    private static final long MAX_CHUNK_BYTES = 1024L * 1024 * 1024;
+    // Enough of a line to test the leading date after trimming whitespace
+    private static final int LINE_PREFIX_BYTES = 256;
+
+    private final StreamingLogIngestor streamingLogIngestor;
+    private final int parallelism = Runtime.getRuntime().availableProcessors();
+    private final ExecutorService chunkReaders = Executors.newFixedThreadPool(parallelism);
+
+    @Value("${log.ingest.local.dir:}")
+    private String localDir;
+
+    public MappedFileIngestor(StreamingLogIngestor streamingLogIngestor) {
+        this.streamingLogIngestor = streamingLogIngestor;
+    }
+
+    /**
+     * Resolves a path relative to log.ingest.local.dir, refusing anything that ends up outside of it
+     * (".." segments, absolute paths, symlinks pointing elsewhere).
+     *
+     * @throws IllegalArgumentException if local ingest is disabled or the path is not a readable file inside the directory
+     */
+    public Path resolve(String relativePath) {
+        if (localDir == null || localDir.isBlank()) {
+            throw new IllegalArgumentException("Local file ingest is disabled (log.ingest.local.dir is not set)");
+        }
+        try {
+            Path base = Paths.get(localDir).toRealPath();
+            Path file = base.resolve(relativePath).normalize().toRealPath();
+            if (!file.startsWith(base) || !Files.isRegularFile(file)) {
+                throw new IllegalArgumentException("Not a file inside the local ingest directory: " + relativePath);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read " + relativePath + ": " + e.getMessage(), e);
+        }
+    }
+
+    public IngestSummaryDTO ingest(String relativePath, String indexName, Long patternId) {
+        Path file = resolve(relativePath);
+        StreamingLogIngestor.IngestRun run = streamingLogIngestor.newRun(relativePath, indexName, patternId, null);
+        ingest(file, run);
+        // failures are recorded on the run, so in-flight batches are always awaited here
+        return run.finish();
+    }
+
+    /**
+     * Feeds a resolved file into an existing run; failures are recorded on the run.
+     */
+    public void ingest(Path file, StreamingLogIngestor.IngestRun run) {
+        AtomicBoolean stopped = new AtomicBoolean();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long chunkSize = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, channel.size() / parallelism + 1));
+            List<long[]> chunks = split(channel, chunkSize);
+            log.info("Ingesting {} ({} bytes) in {} chunks", file, channel.size(), chunks.size());
+
+            List<Future<?>> readers = new ArrayList<>(chunks.size());
+            for (long[] chunk : chunks) {
+                readers.add(chunkReaders.submit(() -> {
+                    if (!stopped.get()) readChunk(channel, chunk[0], chunk[1], run.newInlineBatcher(), stopped);
+                    return null;
+                }));
+            }
+            // on a failure the other readers stop at their next line; all are awaited so none adds to the run
+            // after it is failed
+            Exception failure = null;
+            for (Future<?> reader : readers) {
+                try {
+                    reader.get();
+                } catch (ExecutionException e) {
+                    stopped.set(true);
+                    if (failure == null) failure = e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+            if (failure != null) run.fail(failure);
+        } catch (InterruptedException e) {
+            stopped.set(true);
+            Thread.currentThread().interrupt();
+            run.fail(e);
+        } catch (IOException | RuntimeException e) {
+            stopped.set(true);
+            run.fail(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        chunkReaders.shutdownNow();
+    }
+
+    /**
+     * @param chunkSize at most MAX_CHUNK_BYTES
+     * @return [start, end) byte ranges covering the whole file, each starting at an entry boundary
+     */
+    static List<long[]> split(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextEntryStart(channel, start + chunkSize, size);
+            if (end < 0) {
+                // no entry starts within MAX_CHUNK_BYTES: cut at a line boundary instead so the mapping stays valid
+                end = nextLineStart(channel, start + chunkSize, size);
+                if (end < 0) end = start + chunkSize;
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Offset of the first line after {@code from} (exclusive of the partial line at {@code from}) that starts
+     * a log entry, {@code size} if the file ends first, or -1 if there is none within MAX_CHUNK_BYTES.
+     */
+    private static long nextEntryStart(FileChannel channel, long from, long size) throws IOException {
+        return nextBoundary(channel, from, size, true);
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        return nextBoundary(channel, from, size, false);
+    }
+
+    /**
+     * Walks one mapping of the scanned region line by line; mapping per line would exhaust vm.max_map_count on
+     * files where entry starts are rare (JSON lines, long stack traces).
+     */
+    private static long nextBoundary(FileChannel channel, long from, long size, boolean entryStart) throws IOException {
+        int length = (int) Math.min(size - from, MAX_CHUNK_BYTES + LINE_PREFIX_BYTES);
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        byte[] prefix = new byte[LINE_PREFIX_BYTES];
+        for (int i = 0; i < length; i++) {
+            if (region.get(i) != '\n') continue;
+            int lineStart = i + 1;
+            if (lineStart >= MAX_CHUNK_BYTES) return -1;
+            if (!entryStart) return from + lineStart;
+            int prefixLength = Math.min(LINE_PREFIX_BYTES, length - lineStart);
+            region.get(lineStart, prefix, 0, prefixLength);
+            int end = 0;
+            while (end < prefixLength && prefix[end] != '\n') end++;
+            if (StreamingLogIngestor.isEntryStart(new String(prefix, 0, end, StandardCharsets.UTF_8))) {
+                return from + lineStart;
+            }
+        }
+        return from + length == size ? size : -1;
+    }
+
+    private void readChunk(FileChannel channel, long start, long end, StreamingLogIngestor.EntryBatcher batcher,
+                           AtomicBoolean stopped) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = buffer.limit();
+        byte[] line = new byte[8192];
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && buffer.get(i) != '\n') continue;
+            if (stopped.get()) return;
+            int length = i - lineStart;
+            if (length > 0 && buffer.get(lineStart + length - 1) == '\r') length--;
+            if (length > line.length) line = new byte[Math.max(length, line.length * 2)];
+            buffer.get(lineStart, line, 0, length);
+            if (length > 0 || i < limit) {
+                batcher.addLine(new String(line, 0, length, StandardCharsets.UTF_8));
+            }
+            lineStart = i + 1;
+        }
+        batcher.finish();
+    }
+}
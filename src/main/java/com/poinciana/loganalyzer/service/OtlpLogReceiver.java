@@ -0,0 +1,301 @@
+package com.poinciana.loganalyzer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.poinciana.loganalyzer.model.IngestSummaryDTO;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.ArrayValue;
+import io.opentelemetry.proto.common.v1.InstrumentationScope;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.common.v1.KeyValueList;
+import io.opentelemetry.proto.logs.v1.LogRecord;
+import io.opentelemetry.proto.logs.v1.ResourceLogs;
+import io.opentelemetry.proto.logs.v1.ScopeLogs;
+import io.opentelemetry.proto.resource.v1.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Receives OTLP/HTTP log exports (protobuf or JSON encoding). The records are already structured, so they are
+ * mapped field by field into {@link LogEntryDTO}s without going through {@link LogParserService}:
+ * service.name, host.name and host.ip resource attributes become the service/host fields, severity the level,
+ * the body the message and exception.* attributes the exception; trace/span ids, the scope and all other
+ * attributes go to metadata ("resource." prefix for resource attributes).
+ *
+ * Each export request is submitted to the {@link LogGroupCommitter} as one unit and acknowledged once written.
+ */
+@Slf4j
+@Service
+public class OtlpLogReceiver {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final LogSamplingService logSamplingService;
+    private final LogGroupCommitter logGroupCommitter;
+    private final LogTailService logTailService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${log.otlp.index:${elasticsearch.index}}")
+    private String defaultIndex;
+    @Value("${log.ingest.http.ack-timeout-ms:30000}")
+    private long ackTimeoutMs;
+
+    public OtlpLogReceiver(LogSamplingService logSamplingService, LogGroupCommitter logGroupCommitter,
+                           ObjectMapper objectMapper, LogTailService logTailService) {
+        this.logSamplingService = logSamplingService;
+        this.logGroupCommitter = logGroupCommitter;
+        this.objectMapper = objectMapper;
+        this.logTailService = logTailService;
+    }
+
+    public boolean isSaturated() {
+        return logGroupCommitter.isSaturated();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the body is not a valid export request
+     * @throws java.util.concurrent.RejectedExecutionException if the pipeline is saturated
+     */
+    public IngestSummaryDTO ingestProtobuf(InputStream body, String indexName) throws IOException {
+        ExportLogsServiceRequest request;
+        try {
+            request = ExportLogsServiceRequest.parseFrom(body);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException("Invalid OTLP protobuf payload: " + e.getMessage(), e);
+        }
+        return ingest(request, indexName);
+    }
+
+    /**
+     * Same as {@link #ingestProtobuf} for the OTLP JSON encoding (hex trace/span ids, int64 as strings).
+     */
+    public IngestSummaryDTO ingestJson(InputStream body, String indexName) throws IOException {
+        JsonNode root = objectMapper.readTree(body);
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("Invalid OTLP JSON payload");
+        }
+        return ingest(fromJson(root), indexName);
+    }
+
+    private IngestSummaryDTO ingest(ExportLogsServiceRequest request, String indexName) {
+        String index = indexName == null || indexName.isBlank() ? defaultIndex : indexName;
+        long start = System.nanoTime();
+        long read = 0, sampledOut = 0;
+        List<LogEntryDTO> entries = new ArrayList<>();
+        for (ResourceLogs resourceLogs : request.getResourceLogsList()) {
+            Resource resource = resourceLogs.getResource();
+            Map<String, Object> resourceAttributes = toMap(resource.getAttributesList());
+            for (ScopeLogs scopeLogs : resourceLogs.getScopeLogsList()) {
+                for (LogRecord record : scopeLogs.getLogRecordsList()) {
+                    read++;
+                    LogEntryDTO logEntryDTO = toEntry(record, resourceAttributes, scopeLogs.getScope());
+                    logEntryDTO.setIndexName(index);
+                    logTailService.publish(logEntryDTO);
+                    if (logSamplingService.sample(logEntryDTO)) entries.add(logEntryDTO);
+                    else sampledOut++;
+                }
+            }
+        }
+
+        long failedBatches = 0;
+        if (!entries.isEmpty()) {
+            try {
+                logGroupCommitter.submit(index, entries).get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("{} OTLP log records for index '{}' were not confirmed written: {}", entries.size(), index, e.toString());
+                failedBatches = 1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedBatches = 1;
+            }
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        long ingested = failedBatches == 0 ? entries.size() : 0;
+        return IngestSummaryDTO.builder()
+                .source("otlp")
+                .indexName(index)
+                .entriesRead(read)
+                .entriesIngested(ingested)
+                .sampledOut(sampledOut)
+                .failedBatches(failedBatches)
+                .durationMs(durationMs)
+                .entriesPerSecond(durationMs > 0 ? ingested * 1000.0 / durationMs : 0)
+                .done(true)
+                .build();
+    }
+
+    private LogEntryDTO toEntry(LogRecord record, Map<String, Object> resourceAttributes, InstrumentationScope scope) {
+        Map<String, Object> metadata = new HashMap<>();
+        for (Map.Entry<String, Object> attribute : resourceAttributes.entrySet()) {
+            metadata.put("resource." + attribute.getKey(), attribute.getValue());
+        }
+        Map<String, Object> attributes = toMap(record.getAttributesList());
+        Object exceptionType = attributes.remove("exception.type");
+        Object exceptionMessage = attributes.remove("exception.message");
+        Object stacktrace = attributes.remove("exception.stacktrace");
+        metadata.putAll(attributes);
+
+        if (!record.getTraceId().isEmpty()) metadata.put("traceId", HEX.formatHex(record.getTraceId().toByteArray()));
+        if (!record.getSpanId().isEmpty()) metadata.put("spanId", HEX.formatHex(record.getSpanId().toByteArray()));
+        if (!scope.getName().isEmpty()) metadata.put("scope", scope.getName());
+        if (record.getSeverityNumberValue() > 0) metadata.put("severityNumber", record.getSeverityNumberValue());
+
+        long timeNanos = record.getTimeUnixNano() != 0 ? record.getTimeUnixNano() : record.getObservedTimeUnixNano();
+        String exception = stacktrace != null ? stacktrace.toString()
+                : exceptionType != null ? exceptionType + (exceptionMessage != null ? ": " + exceptionMessage : "")
+                : null;
+
+        return LogEntryDTO.builder()
+                .timestamp(timeNanos != 0 ? Instant.ofEpochSecond(0, timeNanos) : Instant.now())
+                .level(level(record))
+                .serviceName(stringAttribute(resourceAttributes.get("service.name")))
+                .hostName(stringAttribute(resourceAttributes.get("host.name")))
+                .hostIp(stringAttribute(resourceAttributes.get("host.ip")))
+                .message(record.hasBody() ? bodyText(record.getBody(), exceptionMessage) : stringAttribute(exceptionMessage))
+                .exception(exception)
+                .metadata(metadata)
+                .build();
+    }
+
+    /**
+     * Level from the severity number ranges of the OTLP data model, or the severity text if no number is set.
+     */
+    private static String level(LogRecord record) {
+        int severity = record.getSeverityNumberValue();
+        if (severity >= 21) return "FATAL";
+        if (severity >= 17) return "ERROR";
+        if (severity >= 13) return "WARN";
+        if (severity >= 9) return "INFO";
+        if (severity >= 5) return "DEBUG";
+        if (severity >= 1) return "TRACE";
+        String text = record.getSeverityText();
+        return text.isEmpty() ? null : text.toUpperCase(Locale.ROOT);
+    }
+
+    private String bodyText(AnyValue body, Object exceptionMessage) {
+        Object value = toObject(body);
+        if (value == null) return stringAttribute(exceptionMessage);
+        if (value instanceof String text) return text;
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            return value.toString();
+        }
+    }
+
+    private static String stringAttribute(Object value) {
+        if (value instanceof List<?> list) return list.isEmpty() ? null : String.valueOf(list.get(0));
+        return value == null ? null : value.toString();
+    }
+
+    private static Map<String, Object> toMap(List<KeyValue> attributes) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (KeyValue attribute : attributes) {
+            Object value = toObject(attribute.getValue());
+            if (value != null) map.put(attribute.getKey(), value);
+        }
+        return map;
+    }
+
+    private static Object toObject(AnyValue value) {
+        return switch (value.getValueCase()) {
+            case STRING_VALUE -> value.getStringValue();
+            case BOOL_VALUE -> value.getBoolValue();
+            case INT_VALUE -> value.getIntValue();
+            case DOUBLE_VALUE -> value.getDoubleValue();
+            case BYTES_VALUE -> Base64.getEncoder().encodeToString(value.getBytesValue().toByteArray());
+            case ARRAY_VALUE -> value.getArrayValue().getValuesList().stream().map(OtlpLogReceiver::toObject).toList();
+            case KVLIST_VALUE -> toMap(value.getKvlistValue().getValuesList());
+            case VALUE_NOT_SET -> null;
+        };
+    }
+
+    // ---- OTLP JSON encoding ----
+
+    private static ExportLogsServiceRequest fromJson(JsonNode root) {
+        ExportLogsServiceRequest.Builder request = ExportLogsServiceRequest.newBuilder();
+        for (JsonNode resourceLogs : root.path("resourceLogs")) {
+            ResourceLogs.Builder resourceBuilder = ResourceLogs.newBuilder()
+                    .setResource(Resource.newBuilder().addAllAttributes(keyValues(resourceLogs.path("resource").path("attributes"))));
+            for (JsonNode scopeLogs : resourceLogs.path("scopeLogs")) {
+                ScopeLogs.Builder scopeBuilder = ScopeLogs.newBuilder()
+                        .setScope(InstrumentationScope.newBuilder()
+                                .setName(scopeLogs.path("scope").path("name").asText(""))
+                                .setVersion(scopeLogs.path("scope").path("version").asText("")));
+                for (JsonNode record : scopeLogs.path("logRecords")) {
+                    LogRecord.Builder recordBuilder = LogRecord.newBuilder()
+                            .setTimeUnixNano(record.path("timeUnixNano").asLong(0))
+                            .setObservedTimeUnixNano(record.path("observedTimeUnixNano").asLong(0))
+                            .setSeverityNumberValue(record.path("severityNumber").asInt(0))
+                            .setSeverityText(record.path("severityText").asText(""))
+                            .addAllAttributes(keyValues(record.path("attributes")))
+                            .setTraceId(hexBytes(record.path("traceId").asText("")))
+                            .setSpanId(hexBytes(record.path("spanId").asText("")));
+                    if (record.has("body")) recordBuilder.setBody(anyValue(record.path("body")));
+                    scopeBuilder.addLogRecords(recordBuilder);
+                }
+                resourceBuilder.addScopeLogs(scopeBuilder);
+            }
+            request.addResourceLogs(resourceBuilder);
+        }
+        return request.build();
+    }
+
+    private static List<KeyValue> keyValues(JsonNode attributes) {
+        List<KeyValue> keyValues = new ArrayList<>();
+        for (JsonNode attribute : attributes) {
+            keyValues.add(KeyValue.newBuilder()
+                    .setKey(attribute.path("key").asText())
+                    .setValue(anyValue(attribute.path("value")))
+                    .build());
+        }
+        return keyValues;
+    }
+
+    private static AnyValue anyValue(JsonNode node) {
+        AnyValue.Builder value = AnyValue.newBuilder();
+        if (node.has("stringValue")) value.setStringValue(node.get("stringValue").asText());
+        else if (node.has("boolValue")) value.setBoolValue(node.get("boolValue").asBoolean());
+        else if (node.has("intValue")) value.setIntValue(node.get("intValue").asLong()); // int64 may be a string
+        else if (node.has("doubleValue")) value.setDoubleValue(node.get("doubleValue").asDouble());
+        else if (node.has("bytesValue")) value.setBytesValue(ByteString.copyFrom(Base64.getDecoder().decode(node.get("bytesValue").asText())));
+        else if (node.has("arrayValue")) {
+            ArrayValue.Builder array = ArrayValue.newBuilder();
+            for (JsonNode element : node.get("arrayValue").path("values")) array.addValues(anyValue(element));
+            value.setArrayValue(array);
+        } else if (node.has("kvlistValue")) {
+            value.setKvlistValue(KeyValueList.newBuilder().addAllValues(keyValues(node.get("kvlistValue").path("values"))));
+        }
+        return value.build();
+    }
+
+    private static ByteString hexBytes(String hex) {
+        if (hex.isEmpty()) return ByteString.EMPTY;
+        try {
+            return ByteString.copyFrom(HEX.parseHex(hex));
+        } catch (IllegalArgumentException e) {
+            return ByteString.EMPTY; // malformed ids are dropped rather than failing the whole export
+        }
+    }
+}
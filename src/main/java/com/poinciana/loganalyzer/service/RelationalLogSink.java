@@ -0,0 +1,91 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.entity.LogEntry;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.service.interfaces.LogSink;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Copies entries into the relational "logs" table for teams that want SQL access to recent logs.
+ *
+ * Runs on its own sink worker and queue, so the database never slows down indexing: when it falls behind,
+ * batches are dropped for this sink only. Ids come from a pooled sequence, so Hibernate groups the inserts
+ * into JDBC batches of hibernate.jdbc.batch_size rows, one transaction per sink batch.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "log.persistence.enableRelationalDB", havingValue = "true")
+public class RelationalLogSink implements LogSink {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private volatile boolean healthy = true;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int jdbcBatchSize;
+
+    public RelationalLogSink(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public String name() {
+        return "relational";
+    }
+
+    @Override
+    public void write(String indexName, List<LogEntryDTO> entries) throws IOException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < entries.size(); i++) {
+                    entityManager.persist(toEntity(entries.get(i)));
+                    if ((i + 1) % jdbcBatchSize == 0) {
+                        // sends the JDBC batch and keeps the persistence context from growing with the batch
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            });
+            healthy = true;
+        } catch (RuntimeException e) {
+            healthy = false;
+            throw new IOException("Failed to insert " + entries.size() + " logs into the relational store", e);
+        }
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    private LogEntry toEntity(LogEntryDTO dto) {
+        // the column is bounded; the full text stays in Elasticsearch
+        String message = dto.getMessage();
+        if (message != null && message.length() > LogEntry.MESSAGE_LENGTH) {
+            message = message.substring(0, LogEntry.MESSAGE_LENGTH);
+        }
+        return LogEntry.builder()
+                .timestamp(dto.getTimestamp() != null ? LocalDateTime.ofInstant(dto.getTimestamp(), zone) : null)
+                .level(dto.getLevel())
+                .serviceName(dto.getServiceName())
+                .message(message)
+                .exception(dto.getException())
+                .rawLog(dto.getRawLog())
+                .build();
+    }
+}
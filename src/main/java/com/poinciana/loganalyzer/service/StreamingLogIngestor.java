@@ -0,0 +1,337 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.IngestSummaryDTO;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded-memory ingestion of multi-line log text from any source (uploads, server-side files, archives).
+ *
+ * Producers feed lines to an {@link EntryBatcher}, which groups them into entries (a new entry starts at a line
+ * beginning with a yyyy-MM-dd date) and hands batches of raw entries to a parser pool. Each batch is parsed into
+ * its own list and dispatched to the sinks by the task that parsed it, so nothing is shared between threads but
+ * the counters. A semaphore limits the batches being parsed or written at once, which blocks producers when the
+ * sinks fall behind and keeps memory independent of the input size.
+ */
+@Slf4j
+@Service
+public class StreamingLogIngestor {
+
+    private static final Pattern ENTRY_START = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}.*");
+
+    private final LogParserService logParserService;
+    private final LogSamplingService logSamplingService;
+    private final LogSinkDispatcher logSinkDispatcher;
+    private final HostDetailsProvider hostDetailsProvider;
+    private final LogTailService logTailService;
+    private final ExecutorService parsers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+    @Value("${log.ingest.batch-size}")
+    private int batchSize;
+    @Value("${log.ingest.stream.max-in-flight-batches:4}")
+    private int maxInFlightBatches;
+    @Value("${log.ingest.enable-host-lookup:false}")
+    private boolean enableHostLookup;
+    @Value("${log.ingest.deterministic-ids:false}")
+    private boolean deterministicIds;
+
+    public StreamingLogIngestor(LogParserService logParserService, LogSamplingService logSamplingService,
+                                LogSinkDispatcher logSinkDispatcher, HostDetailsProvider hostDetailsProvider,
+                                LogTailService logTailService) {
+        this.logParserService = logParserService;
+        this.logSamplingService = logSamplingService;
+        this.logSinkDispatcher = logSinkDispatcher;
+        this.hostDetailsProvider = hostDetailsProvider;
+        this.logTailService = logTailService;
+    }
+
+    /**
+     * Same rule the Kafka consumer and file upload have always used to find where a log entry begins.
+     */
+    public static boolean isEntryStart(String line) {
+        return line != null && ENTRY_START.matcher(line.trim()).matches();
+    }
+
+    /**
+     * @param progressListener called with a snapshot after every completed batch, from parser threads; may be null
+     */
+    public IngestRun newRun(String source, String indexName, Long patternId, Consumer<IngestSummaryDTO> progressListener) {
+        return new IngestRun(source, indexName, patternId, progressListener);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsers.shutdown();
+    }
+
+    /**
+     * One ingest of one source. Any number of producer threads may feed it, each through its own {@link EntryBatcher}.
+     */
+    public final class IngestRun {
+        private final String source;
+        private final String indexName;
+        private final Long patternId;
+        private final Consumer<IngestSummaryDTO> progressListener;
+        private final Semaphore window = new Semaphore(maxInFlightBatches);
+        private final long startNanos = System.nanoTime();
+
+        private final AtomicLong entriesRead = new AtomicLong();
+        private final AtomicLong entriesIngested = new AtomicLong();
+        private final AtomicLong sampledOut = new AtomicLong();
+        private final AtomicLong parseFailures = new AtomicLong();
+        private final AtomicLong parseFallbacks = new AtomicLong();
+        private final AtomicLong failedBatches = new AtomicLong();
+        private final AtomicReference<String> error = new AtomicReference<>();
+        private volatile boolean cancelled;
+        private volatile long nanosPerEntry;
+        private long nextFreeNanos = System.nanoTime();
+
+        private IngestRun(String source, String indexName, Long patternId, Consumer<IngestSummaryDTO> progressListener) {
+            this.source = source;
+            this.indexName = indexName;
+            this.patternId = patternId;
+            this.progressListener = progressListener;
+        }
+
+        /**
+         * Stops the run at the next batch boundary of every producer; batches already submitted are still written.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Caps the rate entries are handed to the parsers, with up to one second of burst; 0 or less means unlimited.
+         */
+        public void limitRate(double entriesPerSecond) {
+            nanosPerEntry = entriesPerSecond > 0 ? (long) (1_000_000_000L / entriesPerSecond) : 0;
+        }
+
+        public EntryBatcher newBatcher() {
+            return new EntryBatcher(this, false);
+        }
+
+        /**
+         * A batcher that parses and writes each batch on the producer's own thread, keeping the producer's
+         * entries in order; for callers that already run one producer per core.
+         */
+        public EntryBatcher newInlineBatcher() {
+            return new EntryBatcher(this, true);
+        }
+
+        /**
+         * Reads the whole reader as one sequence of entries.
+         */
+        public void readEntries(Reader reader) throws IOException {
+            EntryBatcher batcher = newBatcher();
+            BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+            String line;
+            while ((line = lines.readLine()) != null) {
+                batcher.addLine(line);
+            }
+            batcher.finish();
+        }
+
+        /**
+         * Records a failure of the source itself (unreadable file, broken archive); entries read so far still count.
+         */
+        public void fail(Exception e) {
+            log.error("Ingest of '{}' into index '{}' failed", source, indexName, e);
+            error.compareAndSet(null, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+
+        /**
+         * Waits for all submitted batches to be written.
+         */
+        public IngestSummaryDTO finish() {
+            window.acquireUninterruptibly(maxInFlightBatches);
+            window.release(maxInFlightBatches);
+            IngestSummaryDTO summary = snapshot(true);
+            log.info("Ingested {} of {} logs from '{}' into index '{}' in {} ms ({} parse failures, {} sampled out, {} failed batches)",
+                    summary.getEntriesIngested(), summary.getEntriesRead(), source, indexName, summary.getDurationMs(),
+                    summary.getParseFailures(), summary.getSampledOut(), summary.getFailedBatches());
+            return summary;
+        }
+
+        public IngestSummaryDTO snapshot() {
+            return snapshot(false);
+        }
+
+        /**
+         * Called by producers before each batch: fails on cancellation and waits out the rate limit.
+         */
+        void beforeBatch(int entries) throws IOException {
+            if (cancelled) throw new CancellationException("Ingest of '" + source + "' was cancelled");
+            long perEntry = nanosPerEntry;
+            if (perEntry <= 0) return;
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                // Unused capacity accumulates for at most one second
+                long start = Math.max(nextFreeNanos, now - 1_000_000_000L);
+                nextFreeNanos = start + perEntry * entries;
+                waitNanos = start - now;
+            }
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while throttled");
+                }
+            }
+        }
+
+        void process(List<String> rawEntries) {
+            entriesRead.addAndGet(rawEntries.size());
+            parseAndDispatch(rawEntries);
+            if (progressListener != null) progressListener.accept(snapshot(false));
+        }
+
+        void submit(List<String> rawEntries) throws IOException {
+            try {
+                window.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for in-flight batches");
+            }
+            entriesRead.addAndGet(rawEntries.size());
+            try {
+                parsers.execute(() -> {
+                    try {
+                        parseAndDispatch(rawEntries);
+                        // before the release: once every permit is back, finish() reports the final summary
+                        if (progressListener != null) progressListener.accept(snapshot(false));
+                    } finally {
+                        window.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                window.release();
+                throw e;
+            }
+        }
+
+        private void parseAndDispatch(List<String> rawEntries) {
+            List<LogEntryDTO> parsed = new ArrayList<>(rawEntries.size());
+            for (String rawLog : rawEntries) {
+                try {
+                    LogEntryDTO logEntryDTO = logParserService.grokLogParser(rawLog, patternId);
+                    logEntryDTO.setIndexName(indexName);
+                    if (deterministicIds) {
+                        logEntryDTO.setId(LogDocumentIds.fromContent(rawLog));
+                    }
+                    logTailService.publish(logEntryDTO);
+                    if (logEntryDTO.getMetadata() != null && logEntryDTO.getMetadata().containsKey("parseFallback")) {
+                        parseFallbacks.incrementAndGet();
+                    }
+                    if (!logSamplingService.sample(logEntryDTO)) {
+                        sampledOut.incrementAndGet();
+                        continue;
+                    }
+                    if (enableHostLookup) {
+                        hostDetailsProvider.apply(logEntryDTO);
+                    }
+                    parsed.add(logEntryDTO);
+                } catch (Exception e) {
+                    parseFailures.incrementAndGet();
+                    log.error("Failed to process log entry: {}", rawLog, e);
+                }
+            }
+            if (parsed.isEmpty()) return;
+            try {
+                logSinkDispatcher.dispatch(indexName, parsed).join();
+                entriesIngested.addAndGet(parsed.size());
+            } catch (RuntimeException e) {
+                // the sink already logged and dead-lettered what it could not write
+                failedBatches.incrementAndGet();
+            }
+        }
+
+        private IngestSummaryDTO snapshot(boolean done) {
+            long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+            long ingested = entriesIngested.get();
+            return IngestSummaryDTO.builder()
+                    .source(source)
+                    .indexName(indexName)
+                    .entriesRead(entriesRead.get())
+                    .entriesIngested(ingested)
+                    .sampledOut(sampledOut.get())
+                    .parseFailures(parseFailures.get())
+                    .parseFallbacks(parseFallbacks.get())
+                    .failedBatches(failedBatches.get())
+                    .durationMs(durationMs)
+                    .entriesPerSecond(durationMs > 0 ? ingested * 1000.0 / durationMs : 0)
+                    .done(done)
+                    .error(error.get())
+                    .build();
+        }
+    }
+
+    /**
+     * Assembles lines into entries and entries into batches for one producer; not thread-safe.
+     */
+    public final class EntryBatcher {
+        private final IngestRun run;
+        private final boolean inline;
+        private final StringBuilder entry = new StringBuilder();
+        private List<String> batch = new ArrayList<>();
+
+        private EntryBatcher(IngestRun run, boolean inline) {
+            this.run = run;
+            this.inline = inline;
+        }
+
+        public void addLine(String line) throws IOException {
+            if (line.trim().isEmpty()) return; // Skip empty lines
+            if (!entry.isEmpty() && isEntryStart(line)) {
+                completeEntry();
+            }
+            entry.append(line).append('\n');
+        }
+
+        /**
+         * Completes the last entry and submits what is left of the batch.
+         */
+        public void finish() throws IOException {
+            if (!entry.isEmpty()) completeEntry();
+            if (!batch.isEmpty()) flushBatch();
+        }
+
+        private void completeEntry() throws IOException {
+            batch.add(entry.toString().trim());
+            entry.setLength(0);
+            if (batch.size() >= batchSize) flushBatch();
+        }
+
+        private void flushBatch() throws IOException {
+            run.beforeBatch(batch.size());
+            if (inline) run.process(batch);
+            else run.submit(batch);
+            batch = new ArrayList<>();
+        }
+    }
+}
@@ -15,6 +15,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class TopicIndexMapServiceImpl implements TopicIndexMapService {
 
     private final TopicIndexClientImpl topicIndexClientImpl;
+    private final LogIndexTemplateService logIndexTemplateService;
     private final Map<String, String> topicIndexMap = new ConcurrentHashMap<>();
 
     @Override
@@ -28,6 +29,8 @@ public class TopicIndexMapServiceImpl implements TopicIndexMapService {
             Map<String, String> updatedMap = topicIndexClientImpl.fetchTopicIndexMap();
             topicIndexMap.clear();
             topicIndexMap.putAll(updatedMap);
+            // newly mapped indices must be covered by the index template before their first write
+            logIndexTemplateService.registerIndices(updatedMap.values());
         } catch (Exception e) {
             // Handle/log failure without crashing
             log.error("Failed to refresh topic-index map from logAdmin: {}", e.getMessage());
@@ -0,0 +1,15 @@
+package com.poinciana.loganalyzer.service.interfaces;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+
+import java.util.List;
+
+/**
+ * Sees every batch handed to the {@link com.poinciana.loganalyzer.service.LogSinkDispatcher}, on the
+ * dispatching thread, before the sinks get it. Implementations must be quick and must not block or modify
+ * the entries.
+ */
+public interface LogEntryListener {
+
+    void onEntries(String indexName, List<LogEntryDTO> entries);
+}
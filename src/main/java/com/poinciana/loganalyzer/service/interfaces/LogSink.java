@@ -0,0 +1,46 @@
+package com.poinciana.loganalyzer.service.interfaces;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A destination for parsed log entries. Each sink is fed by its own workers in the
+ * {@link com.poinciana.loganalyzer.service.LogSinkDispatcher}; calls on one sink are only concurrent when it
+ * asks for more than one worker.
+ */
+public interface LogSink {
+
+    String name();
+
+    /**
+     * Writes one batch of entries that belong to the given (base) index.
+     *
+     * @throws IOException if the batch, or part of it, could not be written
+     */
+    void write(String indexName, List<LogEntryDTO> entries) throws IOException;
+
+    /**
+     * Pushes out anything the sink buffers itself. Called when the sink's queue is idle, periodically and on shutdown.
+     */
+    default void flush() throws IOException {
+    }
+
+    boolean isHealthy();
+
+    /**
+     * Number of workers writing to this sink in parallel; more than one requires a thread-safe sink.
+     */
+    default int concurrency() {
+        return 1;
+    }
+
+    /**
+     * Required sinks slow ingestion down when their queue is full; optional ones drop batches instead,
+     * so a slow archive cannot hold up indexing.
+     */
+    default boolean isRequired() {
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+package com.poinciana.loganalyzer.listener_service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.service.LogCollapseService;
+import com.poinciana.loganalyzer.service.LogParserService;
+import com.poinciana.loganalyzer.service.LogSamplingService;
+import com.poinciana.loganalyzer.service.LogSinkDispatcher;
+import com.poinciana.loganalyzer.service.LogTailService;
+import com.poinciana.loganalyzer.service.interfaces.TopicIndexMapService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KafkaLogConsumerTests {
+
+	@Test
+	void framesEntriesPerPartitionWithTheirFirstRecordsId() {
+		LogSinkDispatcher dispatcher = mock(LogSinkDispatcher.class);
+		Map<String, LogEntryDTO> dispatched = new HashMap<>();
+		when(dispatcher.dispatch(anyString(), anyList())).thenAnswer(invocation -> {
+			List<LogEntryDTO> entries = invocation.getArgument(1);
+			entries.forEach(entry -> dispatched.put(entry.getId(), entry));
+			return null;
+		});
+		TopicIndexMapService topics = mock(TopicIndexMapService.class);
+		when(topics.resolveIndex("app-logs")).thenReturn("app-index");
+		LogSamplingService sampling = mock(LogSamplingService.class);
+		when(sampling.sample(any())).thenReturn(true);
+		LogCollapseService collapse = mock(LogCollapseService.class);
+		when(collapse.admit(any(), any())).thenReturn(true);
+
+		KafkaLogConsumer consumer = new KafkaLogConsumer(new LogParserService(), dispatcher, topics, sampling,
+				collapse, mock(LogTailService.class));
+		ReflectionTestUtils.setField(consumer, "deterministicIds", true);
+
+		consumer.consumeLogs(List.of(
+				record(0, 10, "2025-11-01 18:26:50,077 [main] ERROR com.example.Orders - order failed"),
+				record(1, 20, "2025-11-01 18:26:50,078 [main] INFO com.example.Billing - invoice sent"),
+				record(0, 11, "java.lang.IllegalStateException: no stock"),
+				record(1, 21, "2025-11-01 18:26:50,079 [main] INFO com.example.Billing - invoice paid"),
+				record(0, 12, "\tat com.example.Orders.place(Orders.java:42)")), null);
+		consumer.shutdown();
+
+		assertEquals(3, dispatched.size());
+		LogEntryDTO failure = dispatched.get("app-logs-0-10");
+		assertTrue(failure.getRawLog().contains("no stock"));
+		assertTrue(failure.getRawLog().contains("Orders.java:42"));
+		assertEquals("app-index", failure.getIndexName());
+		assertEquals("2025-11-01 18:26:50,078 [main] INFO com.example.Billing - invoice sent\n",
+				dispatched.get("app-logs-1-20").getRawLog());
+		assertTrue(dispatched.get("app-logs-1-21").getRawLog().contains("invoice paid"));
+	}
+
+	private static ConsumerRecord<String, String> record(int partition, long offset, String value) {
+		return new ConsumerRecord<>("app-logs", partition, offset, null, value);
+	}
+}
@@ -0,0 +1,80 @@
+package com.poinciana.loganalyzer.listener_service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyslogFramingTests {
+
+	private static final int MAX_MESSAGE_BYTES = 64;
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(MAX_MESSAGE_BYTES + 16);
+
+	@Test
+	void octetCountedFramesAreSplitByLength() {
+		assertEquals(List.of("<13>hello", "<13>a\nb"), receive("9 <13>hello7 <13>a\nb", false));
+	}
+
+	@Test
+	void octetCountIsInBytesNotCharacters() {
+		assertEquals(List.of("<13>café"), receive("9 <13>café", false));
+	}
+
+	@Test
+	void partialOctetCountedFrameWaitsForTheRest() {
+		assertTrue(receive("9 <13>he", false).isEmpty());
+		assertEquals(List.of("<13>hello"), receive("llo", false));
+
+		assertTrue(receive("1", false).isEmpty());
+		assertEquals(List.of("<13>hello!"), receive("0 <13>hello!", false));
+	}
+
+	@Test
+	void newlineFramesKeepTheUnterminatedTail() {
+		assertEquals(List.of("<13>a", "<13>b"), receive("<13>a\r\n\n<13>b\n<13>c", false));
+		assertEquals(List.of("<13>cd"), receive("d\n", false));
+	}
+
+	@Test
+	void unterminatedLineIsCompleteAtEndOfStream() {
+		assertTrue(receive("<13>last", false).isEmpty());
+		assertEquals(List.of("<13>last"), receive("", true));
+	}
+
+	@Test
+	void overlongLineIsCutInsteadOfStalling() {
+		String line = "<13>" + "x".repeat(MAX_MESSAGE_BYTES);
+
+		assertEquals(List.of(line), receive(line, false));
+		assertEquals(List.of("<13>next"), receive("\n<13>next\n", false));
+	}
+
+	@Test
+	void invalidOctetCountsAreRejected() {
+		assertThrows(IllegalStateException.class, () -> receive("12x<13>hello", false));
+		buffer.clear();
+		assertThrows(IllegalStateException.class, () -> receive("65 <13>", false));
+	}
+
+	/**
+	 * Appends the bytes like a socket read would and returns the frames completed by them.
+	 */
+	private List<String> receive(String data, boolean endOfStream) {
+		buffer.put(data.getBytes(StandardCharsets.UTF_8));
+		buffer.flip();
+		List<String> messages = new ArrayList<>();
+		try {
+			SyslogListener.frame(buffer, endOfStream, MAX_MESSAGE_BYTES, messages);
+		} finally {
+			buffer.compact();
+		}
+		return messages;
+	}
+}
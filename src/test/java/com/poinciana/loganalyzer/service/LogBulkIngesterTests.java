@@ -0,0 +1,149 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.config.RawLogStorageConfig;
+import com.poinciana.loganalyzer.model.DeadLetterDTO;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.service.LogBulkWriter.BulkItemResult;
+import com.poinciana.loganalyzer.service.LogBulkWriter.BulkResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogBulkIngesterTests {
+
+	private final LogBulkWriter writer = mock(LogBulkWriter.class);
+	private final DeadLetterService deadLetters = mock(DeadLetterService.class);
+	private final LogIndexRegistry registry = mock(LogIndexRegistry.class);
+	private final List<LogEntryDTO> entries = List.of(entry("a"), entry("b"), entry("c"));
+	private LogBulkIngester ingester;
+
+	@BeforeEach
+	void setUp() {
+		LogIndexRouter router = mock(LogIndexRouter.class);
+		ingester = new LogBulkIngester(writer, deadLetters, router, registry, mock(RawLogStorageConfig.class));
+		ReflectionTestUtils.setField(ingester, "maxAttempts", 3);
+		ReflectionTestUtils.setField(ingester, "initialBackoffMs", 1L);
+		ReflectionTestUtils.setField(ingester, "maxBackoffMs", 2L);
+	}
+
+	@Test
+	void resendsOnlyRetriableItems() throws IOException {
+		when(writer.write(eq("logs"), anyList(), any()))
+				.thenReturn(result(item("a", 201), item("b", 429), item("c", 409)))
+				.thenReturn(result(item("b", 201)));
+
+		BulkResult result = ingester.ingest("logs", entries);
+
+		assertEquals(List.of(201, 201, 409), statuses(result));
+		List<List<LogEntryDTO>> batches = batches(2);
+		assertEquals(List.of("b"), batches.get(1).stream().map(LogEntryDTO::getId).toList());
+		assertEquals(0, deadLettered().size());
+	}
+
+	@Test
+	void deadLettersPermanentFailuresAndExhaustedRetries() throws IOException {
+		when(writer.write(eq("logs"), anyList(), any()))
+				.thenReturn(result(item("a", 400), item("b", 503), item("c", 201)))
+				.thenReturn(result(item("b", 503)))
+				.thenReturn(result(item("b", 503)));
+
+		BulkResult result = ingester.ingest("logs", entries);
+
+		assertEquals(List.of(400, 503, 201), statuses(result));
+		batches(3);
+		List<DeadLetterDTO> deadLettered = deadLettered();
+		assertEquals(List.of("a", "b"), deadLettered.stream().map(deadLetter -> deadLetter.getEntry().getId()).toList());
+		assertEquals(3, deadLettered.get(1).getAttempts());
+	}
+
+	@Test
+	void resendsBatchAfterConnectionFailure() throws IOException {
+		when(writer.write(eq("logs"), anyList(), any()))
+				.thenThrow(new ConnectException("Connection refused"))
+				.thenReturn(result(item("a", 201), item("b", 201), item("c", 201)));
+
+		BulkResult result = ingester.ingest("logs", entries);
+
+		assertEquals(3, result.succeeded());
+		batches(2);
+	}
+
+	@Test
+	void neverResendsAfterUnreadableResponse() throws IOException {
+		when(writer.write(eq("logs"), anyList(), any())).thenThrow(new IOException("Unexpected _bulk response"));
+
+		BulkResult result = ingester.ingest("logs", entries);
+
+		assertEquals(3, result.failed());
+		batches(1);
+		assertEquals(3, deadLettered().size());
+	}
+
+	@Test
+	void neverResendsOnItemCountMismatch() throws IOException {
+		when(writer.write(eq("logs"), anyList(), any())).thenReturn(result(item("a", 201)));
+
+		BulkResult result = ingester.ingest("logs", entries);
+
+		assertEquals(3, result.failed());
+		assertEquals("response_mismatch", result.items().get(0).errorType());
+		batches(1);
+	}
+
+	@Test
+	void deadLettersOnRuntimeFailure() throws IOException {
+		when(writer.write(eq("logs"), anyList(), any())).thenThrow(new IllegalStateException("serialization failed"));
+
+		BulkResult result = ingester.ingest("logs", entries);
+
+		assertEquals(3, result.failed());
+		batches(1);
+		assertEquals(3, deadLettered().size());
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<List<LogEntryDTO>> batches(int expected) throws IOException {
+		ArgumentCaptor<List<LogEntryDTO>> batches = ArgumentCaptor.forClass(List.class);
+		verify(writer, times(expected)).write(eq("logs"), batches.capture(), any());
+		return batches.getAllValues();
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<DeadLetterDTO> deadLettered() {
+		ArgumentCaptor<List<DeadLetterDTO>> published = ArgumentCaptor.forClass(List.class);
+		verify(deadLetters).publish(published.capture());
+		return published.getValue();
+	}
+
+	private static List<Integer> statuses(BulkResult result) {
+		return result.items().stream().map(BulkItemResult::status).toList();
+	}
+
+	private static BulkResult result(BulkItemResult... items) {
+		return new BulkResult(List.of(items));
+	}
+
+	private static BulkItemResult item(String id, int status) {
+		return status < 300 || status == 409
+				? new BulkItemResult(id, status, null, null)
+				: new BulkItemResult(id, status, "rejected", "status " + status);
+	}
+
+	private static LogEntryDTO entry(String id) {
+		return LogEntryDTO.builder().id(id).message("message " + id).build();
+	}
+}
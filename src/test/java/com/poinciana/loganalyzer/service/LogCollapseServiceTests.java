@@ -0,0 +1,109 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogCollapseServiceTests {
+
+	private static final Instant T0 = Instant.parse("2025-03-01T10:00:00Z");
+
+	private final List<LogEntryDTO> summaries = new ArrayList<>();
+	private LogCollapseService collapseService;
+
+	@BeforeEach
+	void setUp() {
+		collapseService = new LogCollapseService();
+		ReflectionTestUtils.setField(collapseService, "enabled", true);
+		ReflectionTestUtils.setField(collapseService, "windowMs", 60_000L);
+		ReflectionTestUtils.setField(collapseService, "maxKeys", 100);
+	}
+
+	@Test
+	void repeatsInsideTheWindowAreAbsorbed() {
+		assertTrue(admit("api", "ERROR", "Connection refused to 10.0.0.1:5432", 0));
+		assertFalse(admit("api", "ERROR", "Connection refused to 10.0.0.2:5432", 1));
+		assertFalse(admit("api", "ERROR", "Connection refused to 10.0.0.3:5432", 2));
+
+		collapseService.closeAllWindows();
+
+		assertEquals(1, summaries.size());
+		LogEntryDTO summary = summaries.get(0);
+		assertEquals(2L, summary.getRepeatCount());
+		assertEquals(T0, summary.getFirstSeen());
+		assertEquals(T0.plusSeconds(2), summary.getLastSeen());
+		assertEquals("Connection refused to 10.0.0.1:5432", summary.getMessage());
+		assertEquals(true, summary.getMetadata().get("collapsed"));
+	}
+
+	@Test
+	void differentServiceOrLevelOpensItsOwnWindow() {
+		assertTrue(admit("api", "ERROR", "Timeout", 0));
+		assertTrue(admit("worker", "ERROR", "Timeout", 0));
+		assertTrue(admit("api", "WARN", "Timeout", 0));
+		assertFalse(admit("api", "ERROR", "Timeout", 1));
+	}
+
+	@Test
+	void windowClosesOnlyOnceExpired() {
+		admit("api", "ERROR", "Timeout", 0);
+		admit("api", "ERROR", "Timeout", 1);
+
+		collapseService.closeExpiredWindows();
+		assertTrue(summaries.isEmpty());
+
+		ReflectionTestUtils.setField(collapseService, "windowMs", 0L);
+		collapseService.closeExpiredWindows();
+		assertEquals(1, summaries.size());
+
+		// the key starts a new window after the summary
+		assertTrue(admit("api", "ERROR", "Timeout", 2));
+	}
+
+	@Test
+	void windowWithoutRepeatsEmitsNoSummary() {
+		admit("api", "ERROR", "Timeout", 0);
+
+		collapseService.closeAllWindows();
+
+		assertTrue(summaries.isEmpty());
+	}
+
+	@Test
+	void newKeysPassThroughOnceTableIsFull() {
+		ReflectionTestUtils.setField(collapseService, "maxKeys", 1);
+		assertTrue(admit("api", "ERROR", "Timeout", 0));
+
+		assertTrue(admit("api", "ERROR", "Disk full", 1));
+		assertTrue(admit("api", "ERROR", "Disk full", 2));
+		assertFalse(admit("api", "ERROR", "Timeout", 3));
+	}
+
+	@Test
+	void disabledServiceAdmitsEverything() {
+		ReflectionTestUtils.setField(collapseService, "enabled", false);
+
+		assertTrue(admit("api", "ERROR", "Timeout", 0));
+		assertTrue(admit("api", "ERROR", "Timeout", 1));
+	}
+
+	private boolean admit(String service, String level, String message, int secondsAfterStart) {
+		LogEntryDTO entry = LogEntryDTO.builder()
+				.indexName("logs")
+				.serviceName(service)
+				.level(level)
+				.message(message)
+				.timestamp(T0.plusSeconds(secondsAfterStart))
+				.build();
+		return collapseService.admit(entry, summaries::add);
+	}
+}
@@ -0,0 +1,32 @@
+package com.poinciana.loganalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogDocumentIdsTests {
+
+	@Test
+	void contentIdIsStableAndUrlSafe() {
+		String id = LogDocumentIds.fromContent("2025-11-01 18:26:50,077 [main] INFO com.example.Service - started");
+
+		assertEquals(id, LogDocumentIds.fromContent("2025-11-01 18:26:50,077 [main] INFO com.example.Service - started"));
+		// 20 bytes of the hash, unpadded base64url
+		assertEquals(27, id.length());
+		assertTrue(id.matches("[A-Za-z0-9_-]+"));
+	}
+
+	@Test
+	void contentIdDiffersPerLine() {
+		assertNotEquals(LogDocumentIds.fromContent("first line"), LogDocumentIds.fromContent("first line "));
+		assertNotEquals(LogDocumentIds.fromContent(""), LogDocumentIds.fromContent("first line"));
+	}
+
+	@Test
+	void kafkaIdNamesTheRecord() {
+		assertEquals("logs-3-42", LogDocumentIds.fromKafkaRecord("logs", 3, 42));
+		assertNotEquals(LogDocumentIds.fromKafkaRecord("logs", 3, 42), LogDocumentIds.fromKafkaRecord("logs", 4, 42));
+	}
+}
@@ -0,0 +1,125 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogGroupCommitterTests {
+
+	private final LogSinkDispatcher dispatcher = mock(LogSinkDispatcher.class);
+	private final CompletableFuture<Void> dispatched = new CompletableFuture<>();
+	private LogGroupCommitter committer;
+
+	@BeforeEach
+	void setUp() {
+		when(dispatcher.dispatch(eq("logs"), anyList())).thenReturn(dispatched);
+		committer = new LogGroupCommitter(dispatcher);
+		ReflectionTestUtils.setField(committer, "lingerMs", 60_000L);
+		ReflectionTestUtils.setField(committer, "maxBatchEntries", 3);
+		ReflectionTestUtils.setField(committer, "maxPendingEntries", 10L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		committer.shutdown();
+	}
+
+	@Test
+	void fullBatchIsDispatchedWithoutWaitingForLinger() throws Exception {
+		CompletableFuture<Void> first = committer.submit("logs", entries("a", "b"));
+		CompletableFuture<Void> second = committer.submit("logs", entries("c"));
+
+		verify(dispatcher, timeout(1_000)).dispatch(eq("logs"), argThat(batch -> ids(batch).equals(List.of("a", "b", "c"))));
+		assertFalse(first.isDone());
+
+		dispatched.complete(null);
+		first.get(1, TimeUnit.SECONDS);
+		second.get(1, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void partialBatchIsDispatchedAfterLinger() throws Exception {
+		ReflectionTestUtils.setField(committer, "lingerMs", 10L);
+		dispatched.complete(null);
+
+		CompletableFuture<Void> written = committer.submit("logs", entries("a"));
+
+		written.get(1, TimeUnit.SECONDS);
+		verify(dispatcher).dispatch(eq("logs"), argThat(batch -> ids(batch).equals(List.of("a"))));
+	}
+
+	@Test
+	void indicesAreBatchedSeparately() {
+		CompletableFuture<Void> other = new CompletableFuture<>();
+		when(dispatcher.dispatch(eq("audit"), anyList())).thenReturn(other);
+
+		committer.submit("logs", entries("a", "b"));
+		committer.submit("audit", entries("c", "d", "e"));
+
+		verify(dispatcher, timeout(1_000)).dispatch(eq("audit"), argThat(batch -> ids(batch).equals(List.of("c", "d", "e"))));
+		verify(dispatcher, never()).dispatch(eq("logs"), anyList());
+	}
+
+	@Test
+	void submissionsBeyondMaxPendingAreRejectedUntilWritten() throws Exception {
+		ReflectionTestUtils.setField(committer, "maxPendingEntries", 3L);
+		CompletableFuture<Void> written = committer.submit("logs", entries("a", "b", "c"));
+		verify(dispatcher, timeout(1_000)).dispatch(eq("logs"), anyList());
+
+		assertTrue(committer.isSaturated());
+		assertThrows(RejectedExecutionException.class, () -> committer.submit("logs", entries("d")));
+
+		dispatched.complete(null);
+		written.get(1, TimeUnit.SECONDS);
+		assertFalse(committer.isSaturated());
+		committer.submit("logs", entries("d"));
+	}
+
+	@Test
+	void sinkFailureFailsEveryWaiterOfTheBatch() {
+		CompletableFuture<Void> first = committer.submit("logs", entries("a"));
+		CompletableFuture<Void> second = committer.submit("logs", entries("b", "c"));
+		IllegalStateException failure = new IllegalStateException("sink down");
+
+		verify(dispatcher, timeout(1_000)).dispatch(eq("logs"), anyList());
+		dispatched.completeExceptionally(failure);
+
+		assertSame(failure, assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS)).getCause());
+		assertSame(failure, assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS)).getCause());
+		assertEquals(0L, ((AtomicLong) ReflectionTestUtils.getField(committer, "outstandingEntries")).get());
+	}
+
+	private static List<LogEntryDTO> entries(String... ids) {
+		return IntStream.range(0, ids.length)
+				.mapToObj(i -> LogEntryDTO.builder().id(ids[i]).message("line " + i).build())
+				.toList();
+	}
+
+	private static List<String> ids(List<LogEntryDTO> batch) {
+		return batch.stream().map(LogEntryDTO::getId).toList();
+	}
+}
@@ -0,0 +1,83 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.model.LogSearchRequestDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogHotWindowServiceTests {
+
+	private static final List<String> BASES = List.of("logs");
+
+	private LogHotWindowService hotWindow;
+
+	@BeforeEach
+	void setUp() {
+		hotWindow = new LogHotWindowService();
+		ReflectionTestUtils.setField(hotWindow, "enabled", true);
+		ReflectionTestUtils.setField(hotWindow, "durationMs", 900_000L);
+		ReflectionTestUtils.setField(hotWindow, "maxBytes", 64L * 1024 * 1024);
+		ReflectionTestUtils.setField(hotWindow, "maxWordsPerEntry", 4);
+
+		hotWindow.onEntries("logs", List.of(
+				entry("1", "connection pool exhausted after retrying the upstream call", null),
+				entry("2", "upstream timeout", null),
+				entry("3", "request failed with status", "java.net.SocketTimeoutException: upstream read timed out")));
+	}
+
+	@AfterEach
+	void tearDown() {
+		hotWindow.shutdown();
+	}
+
+	@Test
+	void matchesWordsPastTheIndexedOnes() {
+		LogHotWindowService.Page page = search("upstream");
+
+		assertEquals(3, page.matches());
+		assertEquals(List.of("3", "2", "1"), page.entries().stream().map(LogEntryDTO::getId).toList());
+	}
+
+	@Test
+	void matchesAllWordsAcrossMessageAndException() {
+		assertEquals(1, search("failed sockettimeoutexception").matches());
+		assertEquals(1, search("exhausted retrying").matches());
+		assertEquals(0, search("exhausted timeout").matches());
+	}
+
+	@Test
+	void scansTruncatedEntriesForWholeWordsOnly() {
+		assertEquals(0, search("retry").matches());
+		assertEquals(0, search("upstrea").matches());
+	}
+
+	@Test
+	void countsEntriesHoldingAnIndexedWordOnce() {
+		// "pool" is indexed for entry 1, which is also listed as truncated
+		assertEquals(1, search("pool").matches());
+		// entry 3 is scanned, but only holds "sockettimeoutexception"
+		assertEquals(1, search("timeout").matches());
+	}
+
+	private LogHotWindowService.Page search(String query) {
+		return hotWindow.search(BASES, LogSearchRequestDTO.builder().query(query).build(), 0, null, 10);
+	}
+
+	private static LogEntryDTO entry(String id, String message, String exception) {
+		return LogEntryDTO.builder()
+				.id(id)
+				.level("ERROR")
+				.serviceName("gateway")
+				.message(message)
+				.exception(exception)
+				.timestamp(Instant.now())
+				.build();
+	}
+}
@@ -0,0 +1,81 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LogParserServiceSyslogTests {
+
+	private final LogParserService parser = new LogParserService();
+
+	@Test
+	void parsesRfc5424WithStructuredData() {
+		LogEntryDTO entry = parser.parseSyslog("<165>1 2003-10-11T22:14:15.003Z mymachine.example.com evntslog - ID47 "
+				+ "[exampleSDID@32473 iut=\"3\" eventSource=\"Application\" eventID=\"1011\"] An application event log entry");
+
+		assertEquals("INFO", entry.getLevel());
+		assertEquals(Instant.parse("2003-10-11T22:14:15.003Z"), entry.getTimestamp());
+		assertEquals("mymachine.example.com", entry.getHostName());
+		assertEquals("evntslog", entry.getServiceName());
+		assertEquals("An application event log entry", entry.getMessage());
+		assertEquals("rfc5424", entry.getMetadata().get("syslog.format"));
+		assertEquals("20", entry.getMetadata().get("syslog.facility"));
+		assertEquals("ID47", entry.getMetadata().get("syslog.msgId"));
+		assertFalse(entry.getMetadata().containsKey("syslog.procId"));
+		assertEquals("3", entry.getMetadata().get("sd.exampleSDID@32473.iut"));
+		assertEquals("Application", entry.getMetadata().get("sd.exampleSDID@32473.eventSource"));
+		assertEquals("1011", entry.getMetadata().get("sd.exampleSDID@32473.eventID"));
+		assertFalse(entry.getMetadata().containsKey("parseFallback"));
+	}
+
+	@Test
+	void parsesRfc5424WithoutStructuredData() {
+		LogEntryDTO entry = parser.parseSyslog("<34>1 2003-10-11T22:14:15.003Z mymachine.example.com su 4123 ID47 - "
+				+ "'su root' failed for lonvick on /dev/pts/8");
+
+		assertEquals("FATAL", entry.getLevel());
+		assertEquals(Instant.parse("2003-10-11T22:14:15.003Z"), entry.getTimestamp());
+		assertEquals("mymachine.example.com", entry.getHostName());
+		assertEquals("su", entry.getServiceName());
+		assertEquals("4123", entry.getMetadata().get("syslog.procId"));
+		assertEquals("'su root' failed for lonvick on /dev/pts/8", entry.getMessage());
+		assertFalse(entry.getMetadata().containsKey("parseFallback"));
+	}
+
+	@Test
+	void parsesRfc3164WithSingleDigitDay() {
+		LogEntryDTO entry = parser.parseSyslog("<13>Oct  3 22:14:15 mymachine sshd[1234]: Accepted publickey for admin");
+
+		assertEquals("INFO", entry.getLevel());
+		assertEquals("rfc3164", entry.getMetadata().get("syslog.format"));
+		LocalDateTime timestamp = LocalDateTime.ofInstant(entry.getTimestamp(), ZoneId.systemDefault());
+		assertEquals(Month.OCTOBER, timestamp.getMonth());
+		assertEquals(3, timestamp.getDayOfMonth());
+		assertEquals(22, timestamp.getHour());
+		assertEquals(14, timestamp.getMinute());
+		assertEquals(15, timestamp.getSecond());
+		assertEquals("mymachine", entry.getHostName());
+		assertEquals("sshd", entry.getServiceName());
+		assertEquals("1234", entry.getMetadata().get("syslog.procId"));
+		assertEquals("Accepted publickey for admin", entry.getMessage());
+	}
+
+	@Test
+	void fallsBackWithoutPri() {
+		LogEntryDTO entry = parser.parseSyslog("plain line without a syslog header");
+
+		assertEquals("plain line without a syslog header", entry.getMessage());
+		assertEquals("syslogNoPri", entry.getMetadata().get("parseFallback"));
+		assertNull(entry.getLevel());
+		assertNotNull(entry.getTimestamp());
+	}
+}
@@ -0,0 +1,47 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogRollupServiceTests {
+
+	@Test
+	void plainEntryCountsOnce() {
+		assertEquals(1, LogRollupService.countOf(entry(null, null)));
+	}
+
+	@Test
+	void collapsedEntryCountsItsRepeats() {
+		assertEquals(7, LogRollupService.countOf(entry(7L, null)));
+	}
+
+	@Test
+	void sampledEntryCountsAsTheLogsItStandsFor() {
+		assertEquals(10, LogRollupService.countOf(entry(null, 0.1)));
+		assertEquals(3, LogRollupService.countOf(entry(null, 0.3)));
+		assertEquals(40, LogRollupService.countOf(entry(4L, 0.1)));
+	}
+
+	@Test
+	void sampleRateReadBackAsStringIsHonoured() {
+		assertEquals(4, LogRollupService.countOf(entry(null, "0.25")));
+	}
+
+	@Test
+	void invalidSampleRateIsIgnored() {
+		assertEquals(1, LogRollupService.countOf(entry(null, 0.0)));
+		assertEquals(1, LogRollupService.countOf(entry(null, "often")));
+		assertEquals(1, LogRollupService.countOf(entry(null, 2.0)));
+	}
+
+	private static LogEntryDTO entry(Long repeatCount, Object sampleRate) {
+		Map<String, Object> metadata = new HashMap<>();
+		if (sampleRate != null) metadata.put("sampleRate", sampleRate);
+		return LogEntryDTO.builder().repeatCount(repeatCount).metadata(metadata).build();
+	}
+}
@@ -0,0 +1,116 @@
+package com.poinciana.loganalyzer.service;
+
+import com.poinciana.loganalyzer.config.LogSamplingConfig;
+import com.poinciana.loganalyzer.model.LogEntryDTO;
+import com.poinciana.loganalyzer.model.SamplingRuleDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSamplingServiceTests {
+
+	private final ManualClock clock = new ManualClock();
+	private LogSamplingService samplingService;
+
+	@BeforeEach
+	void setUp() {
+		LogSamplingConfig config = new LogSamplingConfig();
+		config.setEnabled(true);
+		config.setRules(List.of(SamplingRuleDTO.builder().serviceName("chatty").maxPerSecond(5).build()));
+		samplingService = new LogSamplingService(config, clock);
+		samplingService.init();
+	}
+
+	@Test
+	void bucketCapsEntriesPerSecond() {
+		assertEquals(5, keptOf(50, "logs", "chatty"));
+
+		clock.advance(200);
+		assertEquals(1, keptOf(50, "logs", "chatty"));
+		clock.advance(5_000);
+		// the burst is capped at one second of tokens
+		assertEquals(5, keptOf(50, "logs", "chatty"));
+	}
+
+	@Test
+	void bucketIsPerIndexAndService() {
+		keptOf(50, "logs", "chatty");
+
+		assertFalse(samplingService.sample(entry("logs", "chatty")));
+		assertTrue(samplingService.sample(entry("other-logs", "chatty")));
+		// no rule matches, so the entry is kept without a sample rate
+		LogEntryDTO unmatched = entry("logs", "quiet");
+		assertTrue(samplingService.sample(unmatched));
+		assertNull(unmatched.getMetadata());
+	}
+
+	@Test
+	void keptEntriesCarryAdmissionRatioOfPreviousSecond() {
+		keptOf(50, "logs", "chatty");
+
+		clock.advance(1_000);
+		LogEntryDTO kept = entry("logs", "chatty");
+		assertTrue(samplingService.sample(kept));
+		assertEquals(0.1, (double) kept.getMetadata().get("sampleRate"), 1e-9);
+	}
+
+	@Test
+	void rateZeroDropsEverything() {
+		samplingService.replaceRules(List.of(SamplingRuleDTO.builder().level("DEBUG").rate(0).build()));
+		LogEntryDTO debug = entry("logs", "chatty");
+		debug.setLevel("debug");
+
+		assertFalse(samplingService.sample(debug));
+		assertTrue(samplingService.sample(entry("logs", "chatty")));
+	}
+
+	private int keptOf(int count, String index, String service) {
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (samplingService.sample(entry(index, service))) kept++;
+		}
+		return kept;
+	}
+
+	private static LogEntryDTO entry(String index, String service) {
+		return LogEntryDTO.builder().indexName(index).serviceName(service).level("INFO").message("m").build();
+	}
+
+	private static final class ManualClock extends Clock {
+		private long millis = 1_700_000_000_000L;
+
+		void advance(long deltaMillis) {
+			millis += deltaMillis;
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+}
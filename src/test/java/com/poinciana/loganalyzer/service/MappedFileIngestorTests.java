@@ -0,0 +1,77 @@
+package com.poinciana.loganalyzer.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedFileIngestorTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void splitsOnlyAtEntryStarts() throws IOException {
+		Path file = dir.resolve("app.log");
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < 20_000; i++) {
+				writer.write(String.format("2025-11-01 18:26:%02d,%03d [main] ERROR com.example.Orders - order %d failed\n",
+						i % 60, i % 1000, i));
+				// stack traces of varying length, so chunk ends often fall inside one
+				for (int frame = 0; frame < i % 7; frame++) {
+					writer.write("\tat com.example.Orders.place(Orders.java:" + frame + ")\n");
+				}
+			}
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			List<long[]> chunks = MappedFileIngestor.split(channel, 64 * 1024);
+
+			assertTrue(chunks.size() > 10, "chunks " + chunks.size());
+			assertEquals(0, chunks.get(0)[0]);
+			assertEquals(channel.size(), chunks.get(chunks.size() - 1)[1]);
+			for (int i = 1; i < chunks.size(); i++) {
+				assertEquals(chunks.get(i - 1)[1], chunks.get(i)[0]);
+				assertTrue(StreamingLogIngestor.isEntryStart(lineAt(channel, chunks.get(i)[0])),
+						"chunk " + i + " starts inside an entry");
+			}
+		}
+	}
+
+	@Test
+	void keepsAnEntryWholeWhenNoEntryStartFollows() throws IOException {
+		Path file = dir.resolve("continuations.log");
+		StringBuilder text = new StringBuilder("2025-11-01 18:26:50,077 [main] ERROR com.example.Orders - failed\n");
+		for (int i = 0; i < 10_000; i++) {
+			text.append("\tat com.example.Orders.place(Orders.java:").append(i).append(")\n");
+		}
+		Files.writeString(file, text);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			List<long[]> chunks = MappedFileIngestor.split(channel, 64 * 1024);
+
+			// the scan for an entry start reaches the end of the file, so the entry is not cut at a line
+			assertEquals(1, chunks.size());
+			assertEquals(channel.size(), chunks.get(0)[1]);
+		}
+	}
+
+	private static String lineAt(FileChannel channel, long offset) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		channel.read(buffer, offset);
+		String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+		int newline = text.indexOf('\n');
+		return newline < 0 ? text : text.substring(0, newline);
+	}
+}